@@ -0,0 +1,95 @@
+package byow.Core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of filling an array of the size of a whole map one value at a time with uniform(), gaussian() and
+ * bernoulli(), against the bulk fillUniform(), fillGaussian() and fillBernoulli() of RandomUtils.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkFillBenchmark {
+    private static final long SEED = 42;
+    private static final int MAX_VALUE = 100;
+    private static final double P = 0.3;
+
+    @Param({"4324", "262144"})
+    int size;
+
+    SplittableRandom random;
+    int[] ints;
+    double[] doubles;
+    long[] bits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new SplittableRandom(SEED);
+        ints = new int[size];
+        doubles = new double[size];
+        bits = new long[(size + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    @Benchmark
+    public int[] uniformOneAtATime() {
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = RandomUtils.uniform(random, 0, MAX_VALUE);
+        }
+        return ints;
+    }
+
+    @Benchmark
+    public int[] uniformBulk() {
+        RandomUtils.fillUniform(random, ints, 0, MAX_VALUE);
+        return ints;
+    }
+
+    @Benchmark
+    public double[] gaussianOneAtATime() {
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = RandomUtils.gaussian(random);
+        }
+        return doubles;
+    }
+
+    @Benchmark
+    public double[] gaussianBulk() {
+        RandomUtils.fillGaussian(random, doubles);
+        return doubles;
+    }
+
+    @Benchmark
+    public long[] bernoulliOneAtATime() {
+        for (int i = 0; i < bits.length * Long.SIZE; i++) {
+            if (RandomUtils.bernoulli(random, P)) {
+                bits[i / Long.SIZE] |= 1L << i;
+            } else {
+                bits[i / Long.SIZE] &= ~(1L << i);
+            }
+        }
+        return bits;
+    }
+
+    @Benchmark
+    public long[] bernoulliBulk() {
+        RandomUtils.fillBernoulli(random, bits, P);
+        return bits;
+    }
+}
@@ -0,0 +1,72 @@
+package byow.Core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of a draw from RandomUtils.discrete(), with probabilities and with frequencies, and a draw from an
+ * AliasSampler built once from the same weights. The weights are random, so the linear scan of discrete() stops at a
+ * random point, and the number of weights goes from a handful, like room types, up to a large loot table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiscreteSamplingBenchmark {
+    private static final long SEED = 42;
+    private static final int MAX_FREQUENCY = 1000;
+
+    @Param({"4", "16", "256", "4096"})
+    int size;
+
+    SplittableRandom random;
+    double[] probabilities;
+    int[] frequencies;
+    RandomUtils.AliasSampler sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new SplittableRandom(SEED);
+        frequencies = new int[size];
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            frequencies[i] = 1 + random.nextInt(MAX_FREQUENCY);
+            sum += frequencies[i];
+        }
+        probabilities = new double[size];
+        for (int i = 0; i < size; i++) {
+            probabilities[i] = (double) frequencies[i] / sum;
+        }
+        sampler = RandomUtils.aliasSampler(frequencies);
+    }
+
+    @Benchmark
+    public int discreteProbabilities() {
+        return RandomUtils.discrete(random, probabilities);
+    }
+
+    @Benchmark
+    public int discreteFrequencies() {
+        return RandomUtils.discrete(random, frequencies);
+    }
+
+    @Benchmark
+    public int alias() {
+        return sampler.sample(random);
+    }
+}
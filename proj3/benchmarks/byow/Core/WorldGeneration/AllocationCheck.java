@@ -0,0 +1,97 @@
+package byow.Core.WorldGeneration;
+
+import byow.Core.Input.InputSource;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that the steady-state game loop doesn't allocate. A game is started headless and run for a number of
+ * ticks with a few scripted keys per tick, reading the latest frame and the hovered tile after every tick the way
+ * the render thread does. The bytes allocated by the thread are read from com.sun.management.ThreadMXBean, so this
+ * needs a HotSpot based JVM, and the check fails with exit code 1 if the average per tick is over the budget.
+ * <p>
+ * The budget is not zero because the action history keeps every action, so its buffer has to grow now and then.
+ * Drawing is not covered, since StdDraw needs a screen.
+ * <p>
+ * Usage: java byow.Core.WorldGeneration.AllocationCheck [ticks] [budget bytes per tick]
+ */
+public class AllocationCheck {
+    private static final long SEED = 5197880843569031643L;
+    private static final int WIDTH = 92;
+    private static final int HEIGHT = 47;
+    private static final String KEYS = "dddwwwaaasssl";
+    private static final int KEYS_PER_TICK = 4;
+    private static final int DEFAULT_TICKS = 1_000_000;
+    private static final long DEFAULT_BUDGET = 16;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int ticks = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        long budget = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_BUDGET;
+
+        ScriptedInput input = new ScriptedInput();
+        Game game = new Game(WIDTH, HEIGHT, null, input);
+        game.startHeadless(SEED);
+        run(game, input, ticks / 4);
+
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        long checksum = run(game, input, ticks);
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+        double perTick = (double) allocated / ticks;
+        System.out.printf("%d ticks, %d bytes allocated, %.3f bytes per tick (budget %d), checksum %d%n", ticks,
+                allocated, perTick, budget, checksum);
+        if (perTick > budget) {
+            System.err.println("allocation budget exceeded");
+            System.exit(1);
+        }
+    }
+
+    private static long run(Game game, ScriptedInput input, int ticks) {
+        long checksum = 0;
+        for (int i = 0; i < ticks; i++) {
+            input.allow(KEYS_PER_TICK);
+            game.tick();
+            GameFrame frame = game.latestFrame();
+            checksum += frame.shownTile(i % WIDTH, i % HEIGHT, Game.DARK).description().length();
+        }
+        return checksum;
+    }
+
+    /**
+     * Types the keys of KEYS over and over, a given number per tick.
+     */
+    private static class ScriptedInput implements InputSource {
+        private int next;
+        private int allowed;
+
+        void allow(int keys) {
+            allowed = keys;
+        }
+
+        @Override
+        public char getNextKey() {
+            allowed--;
+            char key = KEYS.charAt(next);
+            next = (next + 1) % KEYS.length();
+            return key;
+        }
+
+        @Override
+        public boolean possibleInput() {
+            return allowed > 0;
+        }
+
+        @Override
+        public char awaitKey() {
+            return possibleInput() ? getNextKey() : END_OF_INPUT;
+        }
+
+        @Override
+        public char awaitKey(long timeoutMillis) {
+            return awaitKey();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package byow.Core.WorldGeneration;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that a GameBatch plays every game the same as a GameState of its own, and times both. A batch of games is
+ * started from consecutive seeds and given random actions, once on the calling thread and once split across the
+ * common fork-join pool, and every game of both batches is compared with a GameState that was given the same
+ * actions: the tiles, the player, the balls and the lights have to match. The check fails with exit code 1 on the
+ * first game that doesn't.
+ * <p>
+ * Usage: java byow.Core.WorldGeneration.GameBatchCheck [games] [steps]
+ */
+public class GameBatchCheck {
+    private static final int WIDTH = 92;
+    private static final int HEIGHT = 47;
+    private static final long FIRST_SEED = 0;
+    private static final int DEFAULT_GAMES = 1000;
+    private static final int DEFAULT_STEPS = 2000;
+    private static final String KEYS = "wasdlx";
+
+    public static void main(String[] args) {
+        int games = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int steps = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_STEPS;
+
+        long[] seeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            seeds[i] = FIRST_SEED + i;
+        }
+        char[][] actions = new char[steps][games];
+        SplittableRandom random = new SplittableRandom(FIRST_SEED);
+        for (char[] step : actions) {
+            for (int i = 0; i < games; i++) {
+                step[i] = KEYS.charAt(random.nextInt(KEYS.length()));
+            }
+        }
+
+        GameBatch serial = new GameBatch(seeds, WIDTH, HEIGHT);
+        GameBatch parallel = new GameBatch(seeds, WIDTH, HEIGHT);
+        GameState[] states = new GameState[games];
+        for (int i = 0; i < games; i++) {
+            states[i] = new GameState(seeds[i], WIDTH, HEIGHT);
+        }
+
+        long start = System.nanoTime();
+        for (char[] step : actions) {
+            serial.step(step);
+        }
+        long serialNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (char[] step : actions) {
+            parallel.step(ForkJoinPool.commonPool(), step);
+        }
+        long parallelNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (char[] step : actions) {
+            for (int i = 0; i < games; i++) {
+                states[i].step(step[i]);
+            }
+        }
+        long stateNanos = System.nanoTime() - start;
+
+        for (int i = 0; i < games; i++) {
+            if (!matches(serial, i, states[i]) || !matches(parallel, i, states[i])) {
+                System.err.println("game " + i + " (seed " + seeds[i] + ") doesn't match its GameState");
+                System.exit(1);
+            }
+        }
+        double total = (double) games * steps;
+        System.out.printf("%d games x %d steps match; steps per second: GameState %.0f, batch %.0f, "
+                        + "batch on %d threads %.0f%n", games, steps, total * 1e9 / stateNanos,
+                total * 1e9 / serialNanos, ForkJoinPool.commonPool().getParallelism(),
+                total * 1e9 / parallelNanos);
+    }
+
+    private static boolean matches(GameBatch batch, int game, GameState state) {
+        return batch.playerX(game) == state.playerX() && batch.playerY(game) == state.playerY()
+                && batch.ballsCollected(game) == state.ballsCollected()
+                && batch.winCondition(game) == state.winCondition() && batch.lights(game) == state.lights()
+                && Arrays.deepEquals(batch.toArray(game), state.toArray());
+    }
+}
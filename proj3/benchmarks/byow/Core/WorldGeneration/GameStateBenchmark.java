@@ -0,0 +1,85 @@
+package byow.Core.WorldGeneration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH throughput benchmarks for the headless GameState, on one thread. step() times single actions from a fixed
+ * random walk, and stepAndRead() also reads the shown tile under the player after every step, which moves the light
+ * the way drawing a frame after every step would. Scores are in steps per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    private static final int WIDTH = 92;
+    private static final int HEIGHT = 47;
+    private static final int STEPS = 4096;
+
+    /**
+     * A game that was just started and the actions of a random walk through it, mostly moves with the odd light
+     * switch. The game is restarted for every iteration so the action history doesn't grow without end.
+     */
+    @State(Scope.Thread)
+    public static class Walk {
+        @Param({"0", "42", "5197880843569031643"})
+        long seed;
+
+        GameState state;
+        char[] actions;
+
+        @Setup(Level.Trial)
+        public void makeActions() {
+            Random random = new Random(seed);
+            actions = new char[STEPS];
+            for (int i = 0; i < STEPS; i++) {
+                actions[i] = (random.nextInt(32) == 0) ? 'l' : "wasd".charAt(random.nextInt(4));
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void startGame() {
+            state = new GameState(seed, WIDTH, HEIGHT);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public int step(Walk walk) {
+        GameState state = walk.state;
+        for (char action : walk.actions) {
+            state.step(action);
+        }
+        return state.playerX() + state.playerY();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public int stepAndRead(Walk walk) {
+        GameState state = walk.state;
+        int checksum = 0;
+        for (char action : walk.actions) {
+            state.step(action);
+            if (state.shownTile(state.playerX(), state.playerY(), Game.DARK) != Game.DARK) {
+                checksum++;
+            }
+        }
+        return checksum;
+    }
+}
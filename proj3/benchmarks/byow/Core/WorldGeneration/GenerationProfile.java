@@ -0,0 +1,75 @@
+package byow.Core.WorldGeneration;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Prints the average time and allocated bytes of every createMap() phase over a fixed set of seeds and map sizes.
+ * Allocations are read from com.sun.management.ThreadMXBean, so this needs a HotSpot based JVM.
+ * <p>
+ * Usage: java byow.Core.WorldGeneration.GenerationProfile [rounds]
+ */
+public class GenerationProfile {
+    private static final long[] SEEDS = {0, 42, 123, 2023, 5197880843569031643L};
+    private static final int[][] SIZES = {{92, 47}, {512, 512}, {2048, 2048}, {4096, 4096}};
+    private static final String[] PHASES = {"initializeMap", "createNewRooms", "planHallways", "digHallways",
+        "addBallsToRooms"};
+    private static final int DEFAULT_ROUNDS = 20;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long[] nanos = new long[PHASES.length];
+    private final long[] bytes = new long[PHASES.length];
+    private long lastNanos;
+    private long lastBytes;
+
+    public static void main(String[] args) {
+        int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+        System.out.printf("%-10s %-16s %14s %14s%n", "size", "phase", "avg us", "avg bytes");
+        for (int[] size : SIZES) {
+            GenerationProfile warmup = new GenerationProfile();
+            warmup.run(size[0], size[1], rounds);
+            GenerationProfile profile = new GenerationProfile();
+            profile.run(size[0], size[1], rounds);
+            profile.print(size[0] + "x" + size[1], rounds * SEEDS.length);
+        }
+    }
+
+    private void run(int width, int height, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            for (long seed : SEEDS) {
+                WorldGenerator world = new WorldGenerator(seed, width, height, false);
+                mark();
+                world.initializeMap();
+                record(0);
+                world.createNewRooms();
+                record(1);
+                int[] hallways = world.planHallways();
+                record(2);
+                world.digHallways(hallways);
+                record(3);
+                world.addBallsToRooms();
+                record(4);
+            }
+        }
+    }
+
+    private void mark() {
+        lastBytes = THREADS.getCurrentThreadAllocatedBytes();
+        lastNanos = System.nanoTime();
+    }
+
+    private void record(int phase) {
+        long now = System.nanoTime();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        nanos[phase] += now - lastNanos;
+        bytes[phase] += allocated - lastBytes;
+        mark();
+    }
+
+    private void print(String size, int runs) {
+        for (int i = 0; i < PHASES.length; i++) {
+            System.out.printf("%-10s %-16s %14.1f %14d%n", size, PHASES[i], nanos[i] / 1000.0 / runs, bytes[i] / runs);
+        }
+    }
+}
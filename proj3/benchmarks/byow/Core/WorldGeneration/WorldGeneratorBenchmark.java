@@ -0,0 +1,139 @@
+package byow.Core.WorldGeneration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for WorldGenerator. generate() times a whole new WorldGenerator(seed, width, height), and every
+ * other benchmark times a single phase of createMap() on a generator whose earlier phases were run during setup.
+ * Run with -prof gc for the allocation rate of generate(); GenerationProfile reports the allocations of each phase.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldGeneratorBenchmark {
+
+    /**
+     * The seeds and map sizes every benchmark is run over, from the default Engine size up to thousands of tiles
+     * per side.
+     */
+    @State(Scope.Thread)
+    public static class Settings {
+        @Param({"0", "42", "5197880843569031643"})
+        long seed;
+
+        @Param({"92x47", "512x512", "2048x2048", "4096x4096"})
+        String size;
+
+        int width;
+        int height;
+
+        @Setup(Level.Trial)
+        public void parseSize() {
+            int split = size.indexOf('x');
+            width = Integer.parseInt(size.substring(0, split));
+            height = Integer.parseInt(size.substring(split + 1));
+        }
+
+        WorldGenerator newWorld() {
+            return new WorldGenerator(seed, width, height, false);
+        }
+    }
+
+    /**
+     * A generator that has only had its map initialized.
+     */
+    @State(Scope.Thread)
+    public static class Initialized extends Settings {
+        WorldGenerator world;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            world = newWorld();
+            world.initializeMap();
+        }
+    }
+
+    /**
+     * A generator that has had its rooms placed.
+     */
+    @State(Scope.Thread)
+    public static class RoomsPlaced extends Initialized {
+        @Override
+        @Setup(Level.Invocation)
+        public void setUp() {
+            super.setUp();
+            world.createNewRooms();
+        }
+    }
+
+    /**
+     * A generator whose hallways have been planned but not dug.
+     */
+    @State(Scope.Thread)
+    public static class HallwaysPlanned extends RoomsPlaced {
+        int[] hallways;
+
+        @Override
+        @Setup(Level.Invocation)
+        public void setUp() {
+            super.setUp();
+            hallways = world.planHallways();
+        }
+    }
+
+    /**
+     * A generator that only has its balls left to add.
+     */
+    @State(Scope.Thread)
+    public static class HallwaysDug extends HallwaysPlanned {
+        @Override
+        @Setup(Level.Invocation)
+        public void setUp() {
+            super.setUp();
+            world.digHallways(hallways);
+        }
+    }
+
+    @Benchmark
+    public WorldGenerator generate(Settings settings) {
+        return new WorldGenerator(settings.seed, settings.width, settings.height);
+    }
+
+    @Benchmark
+    public WorldGenerator createNewRooms(Initialized state) {
+        state.world.createNewRooms();
+        return state.world;
+    }
+
+    @Benchmark
+    public int[] planHallways(RoomsPlaced state) {
+        return state.world.planHallways();
+    }
+
+    @Benchmark
+    public WorldGenerator digHallways(HallwaysPlanned state) {
+        state.world.digHallways(state.hallways);
+        return state.world;
+    }
+
+    @Benchmark
+    public WorldGenerator addBallsToRooms(HallwaysDug state) {
+        state.world.addBallsToRooms();
+        return state.world;
+    }
+}
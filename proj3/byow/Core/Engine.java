@@ -2,6 +2,7 @@ package byow.Core;
 
 import byow.Core.Input.KeyboardInputSource;
 import byow.Core.Input.StringInputSource;
+import byow.Core.WorldGeneration.ActionJournal;
 import byow.Core.WorldGeneration.Game;
 import byow.TileEngine.TERenderer;
 import byow.TileEngine.TETile;
@@ -14,11 +15,16 @@ public class Engine {
 
     /**
      * Method used for exploring a fresh world. This method should handle all inputs,
-     * including inputs from the main menu.
+     * including inputs from the main menu. Returns once the player quits or wins.
      */
     public void interactWithKeyboard() {
-        Game game = new Game(WIDTH, HEIGHT, ter, new KeyboardInputSource());
-        game.startGame();
+        KeyboardInputSource keyboard = new KeyboardInputSource();
+        try {
+            Game game = new Game(WIDTH, HEIGHT, ter, keyboard, ActionJournal.SyncPolicy.PERIODIC);
+            game.startGame();
+        } finally {
+            keyboard.close();
+        }
     }
 
     /**
@@ -2,9 +2,31 @@ package byow.Core.Input;
 
 /**
  * Code courtesy of Josh Hug
+ * <p>
+ * Besides checking for a key with possibleInput(), callers can wait for one with awaitKey(). Waiting blocks the
+ * thread instead of polling, and a source that can run out of keys returns END_OF_INPUT once it has, so a caller
+ * waiting for the rest of a command is not stuck forever.
  */
 public interface InputSource {
+    /** Returned by awaitKey() once the source has no keys left and will never get more. */
+    char END_OF_INPUT = '\uFFFF';
+    /** Returned by the timed awaitKey() when no key came in time. */
+    char NO_KEY = '\0';
+
     char getNextKey();
 
     boolean possibleInput();
+
+    /**
+     * Waits until a key is available and returns it.
+     * @return the next key, or END_OF_INPUT if there are no keys left
+     */
+    char awaitKey();
+
+    /**
+     * Waits at most timeoutMillis milliseconds for a key and returns it.
+     * @param timeoutMillis how long to wait for a key
+     * @return the next key, NO_KEY if none came in time, or END_OF_INPUT if there are no keys left
+     */
+    char awaitKey(long timeoutMillis);
 }
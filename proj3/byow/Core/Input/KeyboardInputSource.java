@@ -2,17 +2,82 @@ package byow.Core.Input;
 
 import edu.princeton.cs.algs4.StdDraw;
 
+import java.awt.KeyEventDispatcher;
+import java.awt.KeyboardFocusManager;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Code courtesy of Josh Hug
+ * <p>
+ * Typed keys are put into a queue as the key events come in, the same events StdDraw sees, so awaitKey() can
+ * block on the queue instead of polling StdDraw. StdDraw still keeps its own queue of typed keys, which is
+ * emptied whenever a key is taken from this one so that it doesn't grow for as long as the game runs.
+ * <p>
+ * Every source listens to the keyboard until it is closed, so a source has to be closed once its game is over, or
+ * the next one would see every key twice.
  */
 public class KeyboardInputSource implements InputSource {
+    private final BlockingQueue<Character> keys = new LinkedBlockingQueue<>();
+    private final KeyEventDispatcher dispatcher = e -> {
+        if (e.getID() == KeyEvent.KEY_TYPED) {
+            keys.add(e.getKeyChar());
+        }
+        return false;
+    };
+
+    public KeyboardInputSource() {
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(dispatcher);
+    }
+
+    /**
+     * Stops listening to the keyboard. Keys that were already typed can still be taken.
+     */
+    public void close() {
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().removeKeyEventDispatcher(dispatcher);
+    }
+
     @Override
     public char getNextKey() {
-        return Character.toLowerCase(StdDraw.nextKeyTyped());
+        return take(keys.remove());
     }
 
     @Override
     public boolean possibleInput() {
-        return StdDraw.hasNextKeyTyped();
+        return !keys.isEmpty();
+    }
+
+    /**
+     * Blocks until a key is typed. The keyboard never runs out of keys, so this only returns END_OF_INPUT if the
+     * thread is interrupted while waiting.
+     */
+    @Override
+    public char awaitKey() {
+        try {
+            return take(keys.take());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return END_OF_INPUT;
+        }
+    }
+
+    @Override
+    public char awaitKey(long timeoutMillis) {
+        try {
+            Character key = keys.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            return (key == null) ? NO_KEY : take(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return END_OF_INPUT;
+        }
+    }
+
+    private static char take(char key) {
+        while (StdDraw.hasNextKeyTyped()) {
+            StdDraw.nextKeyTyped();
+        }
+        return Character.toLowerCase(key);
     }
 }
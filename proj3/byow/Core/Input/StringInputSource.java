@@ -23,4 +23,17 @@ public class StringInputSource implements InputSource {
         return index < input.length();
     }
 
+    /**
+     * Never waits, since every key is already known. Returns END_OF_INPUT once the whole string was read.
+     */
+    @Override
+    public char awaitKey() {
+        return possibleInput() ? getNextKey() : END_OF_INPUT;
+    }
+
+    @Override
+    public char awaitKey(long timeoutMillis) {
+        return awaitKey();
+    }
+
 }
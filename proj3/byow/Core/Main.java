@@ -17,6 +17,8 @@ public class Main {
         } else {
             Engine engine = new Engine();
             engine.interactWithKeyboard();
+            // The game window keeps the program running after the game ends.
+            System.exit(0);
         }
     }
 }
@@ -1,6 +1,7 @@
 package byow.Core;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * A library of static methods to generate pseudo-random numbers from
@@ -9,17 +10,38 @@ import java.util.Random;
  * other randomness related stuff you might want to do. Feel free to
  * modify this file.
  * <p>
+ * Every method takes the generator to draw from as a RandomGenerator, so the same methods work with a shared
+ * java.util.Random, which is what WorldGenerator uses and keeps its worlds the same for a given seed, and with a
+ * SplittableRandom from one of the sub-streams below, which can be drawn from on many threads at once.
+ * <p>
+ * Sub-streams are derived from the world seed with subSeed(seed, key), which mixes the key into the seed with the
+ * SplitMix64 finalizer, so neighbouring keys and seeds give unrelated streams:
+ * <ul>
+ *     <li>room i of a world draws from roomStream(seed, i), seeded with subSeed(subSeed(seed, ROOM_STREAMS), i);</li>
+ *     <li>hallway i draws from hallwayStream(seed, i), seeded with subSeed(subSeed(seed, HALLWAY_STREAMS), i);</li>
+ *     <li>the chunk at chunkX, chunkY of a ChunkedWorld is generated from chunkSeed(seed, chunkX, chunkY), which is
+ *     subSeed(seed, key) where the key holds chunkX in its high 32 bits and chunkY in its low 32 bits.</li>
+ * </ul>
+ * A stream only depends on the seed and its index, never on which streams were drawn from before it or on which
+ * thread, so work that is split by room, hallway or chunk comes out bit for bit the same however it is scheduled.
+ * <p>
  * Adapted from https://introcs.cs.princeton.edu/java/22library/StdRandom.java.html
 *
  */
 public class RandomUtils {
+    /** The odd constant SplitMix64 steps its state by, 2^64 divided by the golden ratio. */
+    public static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    /** The key of the family of room streams, "ROOM" in ASCII. */
+    public static final long ROOM_STREAMS = 0x524F4F4DL;
+    /** The key of the family of hallway streams, "HALL" in ASCII. */
+    public static final long HALLWAY_STREAMS = 0x48414C4CL;
 
     /**
      * Returns a random real number uniformly in [0, 1).
      *
      * @return a random real number uniformly in [0, 1)
      */
-    public static double uniform(Random random) {
+    public static double uniform(RandomGenerator random) {
         return random.nextDouble();
     }
 
@@ -30,7 +52,7 @@ public class RandomUtils {
      * @return a random integer uniformly between 0 (inclusive) and {@code n} (exclusive)
      * @throws IllegalArgumentException if {@code n <= 0}
      */
-    public static int uniform(Random random, int n) {
+    public static int uniform(RandomGenerator random, int n) {
         if (n <= 0) {
             throw new IllegalArgumentException("argument must be positive: " + n);
         }
@@ -45,7 +67,7 @@ public class RandomUtils {
      * @return a random long integer uniformly between 0 (inclusive) and {@code n} (exclusive)
      * @throws IllegalArgumentException if {@code n <= 0}
      */
-    public static long uniform(Random random, long n) {
+    public static long uniform(RandomGenerator random, long n) {
         if (n <= 0L) {
             throw new IllegalArgumentException("argument must be positive: " + n);
         }
@@ -82,7 +104,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code b <= a}
      * @throws IllegalArgumentException if {@code b - a >= Integer.MAX_VALUE}
      */
-    public static int uniform(Random random, int a, int b) {
+    public static int uniform(RandomGenerator random, int a, int b) {
         if ((b <= a) || ((long) b - a >= Integer.MAX_VALUE)) {
             throw new IllegalArgumentException("invalid range: [" + a + ", " + b + ")");
         }
@@ -97,7 +119,7 @@ public class RandomUtils {
      * @return a random real number uniformly in [a, b)
      * @throws IllegalArgumentException unless {@code a < b}
      */
-    public static double uniform(Random random, double a, double b) {
+    public static double uniform(RandomGenerator random, double a, double b) {
         if (!(a < b)) {
             throw new IllegalArgumentException("invalid range: [" + a + ", " + b + ")");
         }
@@ -113,7 +135,7 @@ public class RandomUtils {
      * {@code false} with probability {@code p}
      * @throws IllegalArgumentException unless {@code 0} &le; {@code p} &le; {@code 1.0}
      */
-    public static boolean bernoulli(Random random, double p) {
+    public static boolean bernoulli(RandomGenerator random, double p) {
         if (!(p >= 0.0 && p <= 1.0)) {
             throw new IllegalArgumentException("probability p must be between 0.0 and 1.0: " + p);
         }
@@ -127,7 +149,7 @@ public class RandomUtils {
      * @return {@code true} with probability 1/2 and
      * {@code false} with probability 1/2
      */
-    public static boolean bernoulli(Random random) {
+    public static boolean bernoulli(RandomGenerator random) {
         return bernoulli(random, 0.5);
     }
 
@@ -137,7 +159,7 @@ public class RandomUtils {
      * @return a random real number from a standard Gaussian distribution
      * (mean 0 and standard deviation 1).
      */
-    public static double gaussian(Random random) {
+    public static double gaussian(RandomGenerator random) {
         // use the polar form of the Box-Muller transform
         double r, x, y;
         do {
@@ -160,7 +182,7 @@ public class RandomUtils {
      * @return a real number distributed according to the Gaussian distribution
      * with mean {@code mu} and standard deviation {@code sigma}
      */
-    public static double gaussian(Random random, double mu, double sigma) {
+    public static double gaussian(RandomGenerator random, double mu, double sigma) {
         return mu + sigma * gaussian(random);
     }
 
@@ -174,7 +196,7 @@ public class RandomUtils {
      * {@code p} is (nearly) equal to {@code 1.0}.
      * @throws IllegalArgumentException unless {@code p >= 0.0} and {@code p <= 1.0}
      */
-    public static int geometric(Random random, double p) {
+    public static int geometric(RandomGenerator random, double p) {
         if (!(p >= 0.0 && p <= 1.0)) {
             throw new IllegalArgumentException("probability p must be between 0.0 and 1.0: " + p);
         }
@@ -189,7 +211,7 @@ public class RandomUtils {
      * @return a random integer from a Poisson distribution with mean {@code lambda}
      * @throws IllegalArgumentException unless {@code lambda > 0.0} and not infinite
      */
-    public static int poisson(Random random, double lambda) {
+    public static int poisson(RandomGenerator random, double lambda) {
         if (!(lambda > 0.0)) {
             throw new IllegalArgumentException("lambda must be positive: " + lambda);
         }
@@ -213,7 +235,7 @@ public class RandomUtils {
      *
      * @return a random real number from the standard Pareto distribution
      */
-    public static double pareto(Random random) {
+    public static double pareto(RandomGenerator random) {
         return pareto(random, 1.0);
     }
 
@@ -226,7 +248,7 @@ public class RandomUtils {
      * parameter {@code alpha}
      * @throws IllegalArgumentException unless {@code alpha > 0.0}
      */
-    public static double pareto(Random random, double alpha) {
+    public static double pareto(RandomGenerator random, double alpha) {
         if (!(alpha > 0.0)) {
             throw new IllegalArgumentException("alpha must be positive: " + alpha);
         }
@@ -238,7 +260,7 @@ public class RandomUtils {
      *
      * @return a random real number from the Cauchy distribution.
      */
-    public static double cauchy(Random random) {
+    public static double cauchy(RandomGenerator random) {
         return Math.tan(Math.PI * (uniform(random) - 0.5));
     }
 
@@ -252,7 +274,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if sum of array entries is not (very nearly) equal to 1.0
      * @throws IllegalArgumentException unless {@code probabilities[i] >= 0.0} for each index i
      */
-    public static int discrete(Random random, double[] probabilities) {
+    public static int discrete(RandomGenerator random, double[] probabilities) {
         if (probabilities == null) {
             throw new IllegalArgumentException("argument array is null");
         }
@@ -295,7 +317,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if frequencies[i] is negative for any index i
      * @throws IllegalArgumentException if sum of frequencies exceeds Integer.MAX_VALUE (2^31 - 1)
      */
-    public static int discrete(Random random, int[] frequencies) {
+    public static int discrete(RandomGenerator random, int[] frequencies) {
         if (frequencies == null) {
             throw new IllegalArgumentException("argument array is null");
         }
@@ -329,6 +351,57 @@ public class RandomUtils {
         return -1;
     }
 
+    /**
+     * Returns a sampler for the discrete distribution with the given weights. Building the
+     * sampler takes time proportional to the number of weights, after which every draw
+     * takes constant time and allocates nothing, unlike discrete(), which validates and
+     * scans the whole array on every call.
+     *
+     * @param weights the weight of each integer; they don't have to sum to 1
+     * @return a sampler that returns {@code i} with probability proportional to {@code weights[i]}
+     * @throws IllegalArgumentException if {@code weights} is {@code null}
+     * @throws IllegalArgumentException if all array entries are 0
+     * @throws IllegalArgumentException unless {@code weights[i]} is nonnegative and finite for each index i
+     */
+    public static AliasSampler aliasSampler(double[] weights) {
+        validateNotNull(weights);
+        double sum = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            if (!(weights[i] >= 0.0) || Double.isInfinite(weights[i])) {
+                throw new IllegalArgumentException("array entry " + i + " must be nonnegative and finite: "
+                                                   + weights[i]);
+            }
+            sum += weights[i];
+        }
+        if (!(sum > 0.0) || Double.isInfinite(sum)) {
+            throw new IllegalArgumentException("sum of array entries must be positive and finite: " + sum);
+        }
+        return new AliasSampler(weights, sum);
+    }
+
+    /**
+     * Returns a sampler for the discrete distribution with the given frequencies, the
+     * reusable counterpart of discrete(random, frequencies).
+     *
+     * @param frequencies the frequency of occurrence of each integer
+     * @return a sampler that returns {@code i} with probability proportional to {@code frequencies[i]}
+     * @throws IllegalArgumentException if {@code frequencies} is {@code null}
+     * @throws IllegalArgumentException if all array entries are 0
+     * @throws IllegalArgumentException if {@code frequencies[i]} is negative for any index i
+     */
+    public static AliasSampler aliasSampler(int[] frequencies) {
+        validateNotNull(frequencies);
+        double[] weights = new double[frequencies.length];
+        for (int i = 0; i < frequencies.length; i++) {
+            if (frequencies[i] < 0) {
+                throw new IllegalArgumentException("array entry " + i + " must be nonnegative: "
+                                                   + frequencies[i]);
+            }
+            weights[i] = frequencies[i];
+        }
+        return aliasSampler(weights);
+    }
+
     /**
      * Returns a random real number from an exponential distribution
      * with rate &lambda;.
@@ -338,20 +411,153 @@ public class RandomUtils {
      * rate {@code lambda}
      * @throws IllegalArgumentException unless {@code lambda > 0.0}
      */
-    public static double exp(Random random, double lambda) {
+    public static double exp(RandomGenerator random, double lambda) {
         if (!(lambda > 0.0)) {
             throw new IllegalArgumentException("lambda must be positive: " + lambda);
         }
         return -Math.log(1 - uniform(random)) / lambda;
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    //  BULK VARIANTS THAT FILL A WHOLE ARRAY IN ONE CALL.
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Fills the specified array with random integers uniformly in [a, b). Uses Lemire's
+     * multiply-and-shift reduction of a 32-bit draw. The only division is the one that
+     * computes the rejection threshold, once per call instead of once per value.
+     *
+     * @param values the array to fill
+     * @param a      the left endpoint
+     * @param b      the right endpoint
+     * @throws IllegalArgumentException if {@code values} is {@code null}
+     * @throws IllegalArgumentException if {@code b <= a}
+     * @throws IllegalArgumentException if {@code b - a >= Integer.MAX_VALUE}
+     */
+    public static void fillUniform(RandomGenerator random, int[] values, int a, int b) {
+        validateNotNull(values);
+        if ((b <= a) || ((long) b - a >= Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException("invalid range: [" + a + ", " + b + ")");
+        }
+        long n = b - a;
+        long threshold = (1L << Integer.SIZE) % n;
+        for (int i = 0; i < values.length; i++) {
+            long m = (random.nextInt() & 0xFFFFFFFFL) * n;
+            while ((m & 0xFFFFFFFFL) < threshold) {
+                m = (random.nextInt() & 0xFFFFFFFFL) * n;
+            }
+            values[i] = a + (int) (m >>> Integer.SIZE);
+        }
+    }
+
+    /**
+     * Fills the specified array with random real numbers uniformly in [a, b).
+     *
+     * @param values the array to fill
+     * @param a      the left endpoint
+     * @param b      the right endpoint
+     * @throws IllegalArgumentException if {@code values} is {@code null}
+     * @throws IllegalArgumentException unless {@code a < b}
+     */
+    public static void fillUniform(RandomGenerator random, double[] values, double a, double b) {
+        validateNotNull(values);
+        if (!(a < b)) {
+            throw new IllegalArgumentException("invalid range: [" + a + ", " + b + ")");
+        }
+        double width = b - a;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = a + random.nextDouble() * width;
+        }
+    }
+
+    /**
+     * Fills the specified array with random real numbers from a standard Gaussian
+     * distribution. Unlike gaussian(), which throws away the second value of the polar
+     * Box-Muller transform, both values of every pair are used.
+     *
+     * @param values the array to fill
+     * @throws IllegalArgumentException if {@code values} is {@code null}
+     */
+    public static void fillGaussian(RandomGenerator random, double[] values) {
+        fillGaussian(random, values, 0.0, 1.0);
+    }
+
+    /**
+     * Fills the specified array with random real numbers from a Gaussian distribution
+     * with mean &mu; and standard deviation &sigma;, two at a time.
+     *
+     * @param values the array to fill
+     * @param mu     the mean
+     * @param sigma  the standard deviation
+     * @throws IllegalArgumentException if {@code values} is {@code null}
+     */
+    public static void fillGaussian(RandomGenerator random, double[] values, double mu, double sigma) {
+        validateNotNull(values);
+        for (int i = 0; i < values.length; i += 2) {
+            double r, x, y;
+            do {
+                x = 2.0 * random.nextDouble() - 1.0;
+                y = 2.0 * random.nextDouble() - 1.0;
+                r = x * x + y * y;
+            } while (r >= 1 || r == 0);
+            double scale = sigma * Math.sqrt(-2 * Math.log(r) / r);
+            values[i] = mu + x * scale;
+            if (i + 1 < values.length) {
+                values[i + 1] = mu + y * scale;
+            }
+        }
+    }
+
+    /**
+     * Fills the specified array with random bits from a Bernoulli distribution with
+     * success probability <em>p</em>: every one of the {@code 64 * bits.length} bits is
+     * set with probability {@code p}, so bit {@code j} of the set is bit {@code j % 64}
+     * of {@code bits[j / 64]}. With {@code p} equal to 1/2 every word is a single draw.
+     *
+     * @param bits the array to fill
+     * @param p    the probability of a bit being set
+     * @throws IllegalArgumentException if {@code bits} is {@code null}
+     * @throws IllegalArgumentException unless {@code 0} &le; {@code p} &le; {@code 1.0}
+     */
+    public static void fillBernoulli(RandomGenerator random, long[] bits, double p) {
+        validateNotNull(bits);
+        if (!(p >= 0.0 && p <= 1.0)) {
+            throw new IllegalArgumentException("probability p must be between 0.0 and 1.0: " + p);
+        }
+        if (p == 0.5) {
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = random.nextLong();
+            }
+            return;
+        }
+        for (int i = 0; i < bits.length; i++) {
+            long word = 0L;
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                if (random.nextDouble() < p) {
+                    word |= 1L << bit;
+                }
+            }
+            bits[i] = word;
+        }
+    }
+
+    /**
+     * Fills the specified array with random bits that are set with probability 1/2.
+     *
+     * @param bits the array to fill
+     * @throws IllegalArgumentException if {@code bits} is {@code null}
+     */
+    public static void fillBernoulli(RandomGenerator random, long[] bits) {
+        fillBernoulli(random, bits, 0.5);
+    }
+
     /**
      * Rearranges the elements of the specified array in uniformly random order.
      *
      * @param a the array to shuffle
      * @throws IllegalArgumentException if {@code a} is {@code null}
      */
-    public static void shuffle(Random random, Object[] a) {
+    public static void shuffle(RandomGenerator random, Object[] a) {
         validateNotNull(a);
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -368,7 +574,7 @@ public class RandomUtils {
      * @param a the array to shuffle
      * @throws IllegalArgumentException if {@code a} is {@code null}
      */
-    public static void shuffle(Random random, double[] a) {
+    public static void shuffle(RandomGenerator random, double[] a) {
         validateNotNull(a);
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -385,7 +591,7 @@ public class RandomUtils {
      * @param a the array to shuffle
      * @throws IllegalArgumentException if {@code a} is {@code null}
      */
-    public static void shuffle(Random random, int[] a) {
+    public static void shuffle(RandomGenerator random, int[] a) {
         validateNotNull(a);
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -402,7 +608,7 @@ public class RandomUtils {
      * @param a the array to shuffle
      * @throws IllegalArgumentException if {@code a} is {@code null}
      */
-    public static void shuffle(Random random, char[] a) {
+    public static void shuffle(RandomGenerator random, char[] a) {
         validateNotNull(a);
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -422,7 +628,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code a} is {@code null}
      * @throws IllegalArgumentException unless {@code (0 <= lo) && (lo < hi) && (hi <= a.length)}
      */
-    public static void shuffle(Random random, Object[] a, int lo, int hi) {
+    public static void shuffle(RandomGenerator random, Object[] a, int lo, int hi) {
         validateNotNull(a);
         validateSubarrayIndices(lo, hi, a.length);
 
@@ -443,7 +649,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code a} is {@code null}
      * @throws IllegalArgumentException unless {@code (0 <= lo) && (lo < hi) && (hi <= a.length)}
      */
-    public static void shuffle(Random random, double[] a, int lo, int hi) {
+    public static void shuffle(RandomGenerator random, double[] a, int lo, int hi) {
         validateNotNull(a);
         validateSubarrayIndices(lo, hi, a.length);
 
@@ -464,7 +670,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code a} is {@code null}
      * @throws IllegalArgumentException unless {@code (0 <= lo) && (lo < hi) && (hi <= a.length)}
      */
-    public static void shuffle(Random random, int[] a, int lo, int hi) {
+    public static void shuffle(RandomGenerator random, int[] a, int lo, int hi) {
         validateNotNull(a);
         validateSubarrayIndices(lo, hi, a.length);
 
@@ -484,7 +690,7 @@ public class RandomUtils {
      * of {@code 0}, {@code 1}, ..., {@code n-1}
      * @throws IllegalArgumentException if {@code n} is negative
      */
-    public static int[] permutation(Random random, int n) {
+    public static int[] permutation(RandomGenerator random, int n) {
         if (n < 0) {
             throw new IllegalArgumentException("argument is negative");
         }
@@ -506,7 +712,7 @@ public class RandomUtils {
      * @throws IllegalArgumentException if {@code n} is negative
      * @throws IllegalArgumentException unless {@code 0 <= k <= n}
      */
-    public static int[] permutation(Random random, int n, int k) {
+    public static int[] permutation(RandomGenerator random, int n, int k) {
         if (n < 0) {
             throw new IllegalArgumentException("argument is negative");
         }
@@ -528,6 +734,154 @@ public class RandomUtils {
         return perm;
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    //  SPLITTABLE SUB-STREAMS DERIVED FROM A WORLD SEED.
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The SplitMix64 finalizer: scrambles the bits of z so that inputs that differ in a single bit give unrelated
+     * outputs.
+     *
+     * @param z the value to scramble
+     * @return the scrambled value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the seed of the sub-stream of seed with the given key.
+     *
+     * @param seed the seed the sub-stream is derived from
+     * @param key  which sub-stream of the seed
+     * @return the seed of the sub-stream
+     */
+    public static long subSeed(long seed, long key) {
+        return mix(seed + GOLDEN_GAMMA * mix(key));
+    }
+
+    /**
+     * Returns the sub-stream of seed with the given key.
+     *
+     * @param seed the seed the sub-stream is derived from
+     * @param key  which sub-stream of the seed
+     * @return a new generator that starts at the beginning of the sub-stream
+     */
+    public static SplittableRandom stream(long seed, long key) {
+        return new SplittableRandom(subSeed(seed, key));
+    }
+
+    /**
+     * Returns the stream that room {@code room} of the world with the given seed is generated from.
+     *
+     * @param seed the seed of the world
+     * @param room the index of the room
+     * @return a new generator that starts at the beginning of the room's stream
+     */
+    public static SplittableRandom roomStream(long seed, int room) {
+        return stream(subSeed(seed, ROOM_STREAMS), room);
+    }
+
+    /**
+     * Returns the stream that hallway {@code hallway} of the world with the given seed is generated from.
+     *
+     * @param seed    the seed of the world
+     * @param hallway the index of the hallway
+     * @return a new generator that starts at the beginning of the hallway's stream
+     */
+    public static SplittableRandom hallwayStream(long seed, int hallway) {
+        return stream(subSeed(seed, HALLWAY_STREAMS), hallway);
+    }
+
+    /**
+     * Returns the seed that the chunk at chunkX, chunkY of an infinite world with the given seed is generated from.
+     *
+     * @param seed   the seed of the world
+     * @param chunkX x coordinate of the chunk, in chunks
+     * @param chunkY y coordinate of the chunk, in chunks
+     * @return the seed of the chunk
+     */
+    public static long chunkSeed(long seed, int chunkX, int chunkY) {
+        return subSeed(seed, ((long) chunkX << Integer.SIZE) | (chunkY & 0xFFFFFFFFL));
+    }
+
+    /**
+     * A precomputed sampler for a discrete distribution, built with Vose's alias method.
+     * Every integer {@code i} gets a column: with probability {@code prob[i]} a draw that
+     * lands in the column returns {@code i}, and otherwise it returns {@code alias[i]}.
+     * A draw picks a column uniformly and flips one biased coin, so it takes constant
+     * time however many integers there are. The tables are never changed after they are
+     * built, so a sampler can be shared between threads that each use their own generator.
+     */
+    public static final class AliasSampler {
+        private final double[] prob;
+        private final int[] alias;
+
+        private AliasSampler(double[] weights, double sum) {
+            int n = weights.length;
+            prob = new double[n];
+            alias = new int[n];
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / sum;
+                if (scaled[i] < 1.0) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                prob[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+                if (scaled[more] < 1.0) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // whatever is left over is (nearly) 1.0, up to floating-point roundoff error
+            while (largeCount > 0) {
+                int i = large[--largeCount];
+                prob[i] = 1.0;
+                alias[i] = i;
+            }
+            while (smallCount > 0) {
+                int i = small[--smallCount];
+                prob[i] = 1.0;
+                alias[i] = i;
+            }
+        }
+
+        /**
+         * Returns a random integer from the distribution of this sampler.
+         *
+         * @param random the generator to draw from
+         * @return {@code i} with probability proportional to its weight
+         */
+        public int sample(RandomGenerator random) {
+            int column = random.nextInt(prob.length);
+            return (random.nextDouble() < prob[column]) ? column : alias[column];
+        }
+
+        /**
+         * Returns the number of integers this sampler draws from.
+         *
+         * @return the number of weights the sampler was built from
+         */
+        public int size() {
+            return prob.length;
+        }
+    }
+
     // throw an IllegalArgumentException if x is null
     // (x can be of type Object[], double[], int[], ...)
     private static void validateNotNull(Object x) {
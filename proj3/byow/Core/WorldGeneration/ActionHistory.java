@@ -0,0 +1,165 @@
+package byow.Core.WorldGeneration;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The actions a player took, stored as runs of the same action. Every run is one byte: the high bits hold which
+ * action it is, as an index into ACTIONS, and the low COUNT_BITS bits hold how many times in a row it was taken,
+ * minus one. A run longer than MAX_RUN continues in the next byte, so walking down a long hallway costs a byte per
+ * MAX_RUN steps instead of an object per step.
+ * <p>
+ * The on-disk encoding is the number of runs followed by the run bytes themselves, so saving and loading are a
+ * single pass over the bytes.
+ */
+final class ActionHistory {
+    static final String ACTIONS = "aswdl";
+    private static final int COUNT_BITS = 5;
+    private static final int MAX_RUN = 1 << COUNT_BITS;
+    private static final int COUNT_MASK = MAX_RUN - 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int READ_CHUNK = 1 << 16;
+
+    private byte[] runs;
+    private int runCount;
+    private long size;
+
+    ActionHistory() {
+        this.runs = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds an action to the end of the history.
+     * @param action one of the characters in ACTIONS
+     */
+    void add(char action) {
+        add(action, 1);
+    }
+
+    /**
+     * Adds an action taken count times in a row to the end of the history.
+     * @param action one of the characters in ACTIONS
+     * @param count how many times the action was taken
+     */
+    void add(char action, int count) {
+        int code = ACTIONS.indexOf(action);
+        if (code == -1) {
+            throw new IllegalArgumentException("not an action: " + action);
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("negative count: " + count);
+        }
+        size += count;
+        if (runCount > 0 && (runs[runCount - 1] & 0xFF) >>> COUNT_BITS == code) {
+            int last = runs[runCount - 1] & COUNT_MASK;
+            int extra = Math.min(count, COUNT_MASK - last);
+            runs[runCount - 1] += (byte) extra;
+            count -= extra;
+        }
+        while (count > 0) {
+            int length = Math.min(count, MAX_RUN);
+            if (runCount == runs.length) {
+                runs = Arrays.copyOf(runs, runs.length * 2);
+            }
+            runs[runCount] = (byte) (code << COUNT_BITS | (length - 1));
+            runCount++;
+            count -= length;
+        }
+    }
+
+    /**
+     * Adds every action of other to the end of this history.
+     * @param other the actions to add
+     */
+    void addAll(ActionHistory other) {
+        for (int run = 0; run < other.runCount; run++) {
+            add(other.action(run), other.runLength(run));
+        }
+    }
+
+    /** @return the number of actions in the history */
+    long size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return the number of runs the actions are stored in */
+    int runCount() {
+        return runCount;
+    }
+
+    /**
+     * Returns which action a run is made of.
+     * @param run index of the run, from 0 up to runCount() - 1
+     * @return the action, one of the characters in ACTIONS
+     */
+    char action(int run) {
+        return ACTIONS.charAt((runs[checkRun(run)] & 0xFF) >>> COUNT_BITS);
+    }
+
+    /**
+     * Returns how many times in a row the action of a run was taken.
+     * @param run index of the run, from 0 up to runCount() - 1
+     * @return the length of the run, from 1 up to MAX_RUN
+     */
+    int runLength(int run) {
+        return (runs[checkRun(run)] & COUNT_MASK) + 1;
+    }
+
+    /**
+     * Writes the history in its on-disk encoding.
+     * @param out where to write the history
+     * @throws IOException if out can't be written to
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(runCount);
+        out.write(runs, 0, runCount);
+    }
+
+    /**
+     * Reads a history that was written with writeTo(). The runs are read into a buffer that grows as they arrive,
+     * so a damaged run count ends in an EOFException instead of allocating whatever it claims.
+     * @param in where to read the history from
+     * @return the history
+     * @throws IOException if in can't be read
+     * @throws IllegalArgumentException if in doesn't hold a valid history
+     */
+    static ActionHistory readFrom(DataInput in) throws IOException {
+        int runCount = in.readInt();
+        if (runCount < 0) {
+            throw new IllegalArgumentException("invalid number of runs: " + runCount);
+        }
+        ActionHistory history = new ActionHistory();
+        history.runs = new byte[Math.max(INITIAL_CAPACITY, Math.min(runCount, READ_CHUNK))];
+        int read = 0;
+        while (read < runCount) {
+            if (read == history.runs.length) {
+                history.runs = Arrays.copyOf(history.runs, (int) Math.min(runCount, 2L * read));
+            }
+            int chunk = Math.min(runCount, history.runs.length) - read;
+            in.readFully(history.runs, read, chunk);
+            read += chunk;
+        }
+        for (int run = 0; run < runCount; run++) {
+            int code = (history.runs[run] & 0xFF) >>> COUNT_BITS;
+            if (code >= ACTIONS.length()) {
+                throw new IllegalArgumentException("invalid action in run " + run);
+            }
+            history.size += (history.runs[run] & COUNT_MASK) + 1;
+        }
+        history.runCount = runCount;
+        return history;
+    }
+
+    private int checkRun(int run) {
+        if (run < 0 || run >= runCount) {
+            throw new IndexOutOfBoundsException("run " + run + " of " + runCount);
+        }
+        return run;
+    }
+}
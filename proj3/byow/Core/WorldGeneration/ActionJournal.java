@@ -0,0 +1,297 @@
+package byow.Core.WorldGeneration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the actions of a game, so that a game that crashes can be recovered instead of only being
+ * saved when the player quits. The journal starts with a snapshot of the game when the journal was opened and is
+ * followed by every action taken since, so replaying the actions on top of the snapshot gives the state a save at
+ * that point would have had.
+ * <p>
+ * append() only puts the action in a buffer in memory. A background thread writes whatever was buffered while it
+ * was busy as one batch, so the game never waits for the disk, and how often the batches are forced to the disk is
+ * set with a SyncPolicy.
+ * <p>
+ * The file is a sequence of frames, each made of the length of its payload, the CRC32 of its payload and the
+ * payload itself. The first frame holds the snapshot and every later frame a batch of actions, one byte each. A
+ * crash in the middle of a write leaves a frame that is cut off or doesn't match its checksum at the end of the
+ * file; recover() stops at the first such frame and keeps everything before it.
+ */
+public final class ActionJournal {
+    /**
+     * When the journal forces what it wrote to the disk. Whatever was written but not forced survives the game
+     * crashing, but not the operating system crashing.
+     */
+    public enum SyncPolicy {
+        /** Leaves it to the operating system. */
+        NEVER,
+        /** Forces every batch as soon as it is written. */
+        EVERY_BATCH,
+        /** Forces at most once every SYNC_INTERVAL_MILLIS, if anything was written since. */
+        PERIODIC
+    }
+
+    static final long SYNC_INTERVAL_MILLIS = 1000;
+    private static final int MAGIC = 0x424A524E; // "BJRN"
+    private static final byte VERSION = 1;
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final Path file;
+    private final SyncPolicy policy;
+    private final byte[] header;
+    private final Object lock = new Object();
+    private final Thread writer;
+    private byte[] pending = new byte[INITIAL_BUFFER_SIZE];
+    private byte[] writing = new byte[INITIAL_BUFFER_SIZE];
+    private int pendingSize;
+    private boolean closed;
+    private volatile IOException failure;
+
+    /**
+     * Starts a new journal in file, replacing whatever was there, and starts the thread that writes it.
+     * @param file where to write the journal
+     * @param base the state of the game when the journal starts
+     * @param policy when to force the journal to the disk
+     */
+    ActionJournal(Path file, SaveSnapshot base, SyncPolicy policy) {
+        this.file = file;
+        this.policy = policy;
+        this.header = headerOf(base);
+        this.writer = new Thread(this::writeAll, "action-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Adds an action to the journal. Never waits for the disk. Once writing the journal failed, actions are dropped
+     * instead of piling up, and close() reports the failure.
+     * @param action the key of the action
+     */
+    void append(char action) {
+        if (failure != null) {
+            return;
+        }
+        synchronized (lock) {
+            if (pendingSize == pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[pendingSize] = (byte) action;
+            pendingSize++;
+            lock.notify();
+        }
+    }
+
+    /**
+     * Writes the actions that are still buffered, forces the journal to the disk unless the policy is NEVER, and
+     * stops the writer thread.
+     * @throws UncheckedIOException if the journal could not be written
+     */
+    void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notify();
+        }
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    /**
+     * Closes the journal and deletes its file, for when the game it belongs to does not need to be recovered.
+     */
+    void discard() {
+        try {
+            close();
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Runs on the writer thread: writes the header, then every batch that is appended until the journal is closed.
+     */
+    private void writeAll() {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFrame(channel, header, header.length);
+            if (policy != SyncPolicy.NEVER) {
+                channel.force(false);
+            }
+            long lastSync = System.currentTimeMillis();
+            boolean dirty = false;
+            while (true) {
+                int size;
+                boolean last;
+                synchronized (lock) {
+                    while (pendingSize == 0 && !closed) {
+                        if (dirty && policy == SyncPolicy.PERIODIC) {
+                            long wait = lastSync + SYNC_INTERVAL_MILLIS - System.currentTimeMillis();
+                            if (wait <= 0) {
+                                break;
+                            }
+                            lock.wait(wait);
+                        } else {
+                            lock.wait();
+                        }
+                    }
+                    byte[] swap = writing;
+                    writing = pending;
+                    pending = swap;
+                    size = pendingSize;
+                    pendingSize = 0;
+                    last = closed;
+                }
+                if (size > 0) {
+                    writeFrame(channel, writing, size);
+                    dirty = true;
+                }
+                long now = System.currentTimeMillis();
+                boolean sync = switch (policy) {
+                    case NEVER -> false;
+                    case EVERY_BATCH -> size > 0;
+                    case PERIODIC -> dirty && (last || now - lastSync >= SYNC_INTERVAL_MILLIS);
+                };
+                if (sync) {
+                    channel.force(false);
+                    lastSync = now;
+                    dirty = false;
+                }
+                if (last) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new IOException("journal writer was interrupted", e);
+        }
+    }
+
+    private static void writeFrame(FileChannel channel, byte[] payload, int size) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, size);
+        ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        frameHeader.putInt(size).putInt((int) crc.getValue()).flip();
+        ByteBuffer[] frame = {frameHeader, ByteBuffer.wrap(payload, 0, size)};
+        while (frame[1].hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    private static byte[] headerOf(SaveSnapshot base) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            base.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the journal in file, keeping every frame up to the first one that is cut off or damaged.
+     * @param file where the journal was written
+     * @return what could be recovered, or null if there is no journal or not even its snapshot is intact
+     * @throws IOException if the file can't be read
+     */
+    static Recovery recover(Path file) throws IOException {
+        ByteBuffer journal;
+        try {
+            journal = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        byte[] header = nextFrame(journal);
+        if (header == null) {
+            return null;
+        }
+        SaveSnapshot base;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(header))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                return null;
+            }
+            base = SaveSnapshot.readFrom(in);
+        } catch (EOFException | IllegalArgumentException e) {
+            return null;
+        }
+        ByteArrayOutputStream actions = new ByteArrayOutputStream();
+        for (byte[] batch = nextFrame(journal); batch != null; batch = nextFrame(journal)) {
+            actions.write(batch, 0, batch.length);
+        }
+        return new Recovery(base, actions.toByteArray(), journal.hasRemaining());
+    }
+
+    /**
+     * Reads the next frame and returns its payload, or returns null and leaves the position at the start of the
+     * frame if it is cut off or damaged.
+     */
+    private static byte[] nextFrame(ByteBuffer journal) {
+        int start = journal.position();
+        if (journal.remaining() < FRAME_HEADER_BYTES) {
+            return null;
+        }
+        int size = journal.getInt();
+        int checksum = journal.getInt();
+        if (size < 0 || size > journal.remaining()) {
+            journal.position(start);
+            return null;
+        }
+        byte[] payload = new byte[size];
+        journal.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            journal.position(start);
+            return null;
+        }
+        return payload;
+    }
+
+    /**
+     * What recover() found in a journal: the state the journal started from and the actions taken since.
+     */
+    static final class Recovery {
+        final SaveSnapshot base;
+        final byte[] actions;
+        /** Whether the journal ended in a frame that was cut off or damaged, which was dropped. */
+        final boolean tornTail;
+
+        private Recovery(SaveSnapshot base, byte[] actions, boolean tornTail) {
+            this.base = base;
+            this.actions = actions;
+            this.tornTail = tornTail;
+        }
+    }
+}
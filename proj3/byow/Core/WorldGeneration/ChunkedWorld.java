@@ -0,0 +1,164 @@
+package byow.Core.WorldGeneration;
+
+import byow.Core.RandomUtils;
+import byow.TileEngine.TETile;
+import byow.TileEngine.TileGrid;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An infinite world that is split into CHUNK_SIZE x CHUNK_SIZE chunks. A chunk is only generated the first time one
+ * of its tiles is asked for, and it is always generated the same way from (seed, chunkX, chunkY), so a chunk that was
+ * evicted comes back exactly as it was.
+ * <p>
+ * Every chunk is a small WorldGenerator map of its own. To stitch chunks together, every border between two chunks
+ * gets a doorway at a position that only depends on the seed and the border, and both chunks dig a hallway from
+ * their side of that doorway to their starting room. The hallways meet at the border, so every chunk is reachable
+ * from every other one.
+ * <p>
+ * Generated chunks are kept in a least recently used cache that holds at most maxCacheBytes of tiles, and
+ * retainAround() evicts every chunk outside a window around the player, so memory and generation cost depend on how
+ * far the player explores instead of on the size of the world.
+ */
+public class ChunkedWorld {
+    public static final int CHUNK_SIZE = 64;
+    private static final int ROOMS_PER_CHUNK = 6;
+    private static final int DOOR_MARGIN = 2;
+    private static final int CHUNK_BYTES = CHUNK_SIZE * CHUNK_SIZE;
+    private static final int EAST = 0;
+    private static final int NORTH = 1;
+
+    private final long seed;
+    private final int maxChunks;
+    private final LinkedHashMap<Long, TileGrid> chunks;
+
+    /**
+     * Creates an infinite world for the given seed. Nothing is generated until a tile is asked for.
+     *
+     * @param seed          used for the pseudo-random number generator of every chunk
+     * @param maxCacheBytes the most tile memory the cache may hold, at least one chunk
+     */
+    public ChunkedWorld(long seed, long maxCacheBytes) {
+        if (maxCacheBytes < CHUNK_BYTES) {
+            throw new IllegalArgumentException("cache must hold at least one chunk: " + maxCacheBytes);
+        }
+        this.seed = seed;
+        this.maxChunks = (int) Math.min(Integer.MAX_VALUE, maxCacheBytes / CHUNK_BYTES);
+        this.chunks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TileGrid> eldest) {
+                return size() > maxChunks;
+            }
+        };
+    }
+
+    /**
+     * Returns the tile at world position x, y, generating its chunk if needed.
+     *
+     * @param x x position in the world, may be negative
+     * @param y y position in the world, may be negative
+     * @return the tile at that position
+     */
+    public TETile getTile(int x, int y) {
+        return TileGrid.tile(getId(x, y));
+    }
+
+    /**
+     * Returns the id of the tile at world position x, y, generating its chunk if needed.
+     *
+     * @param x x position in the world, may be negative
+     * @param y y position in the world, may be negative
+     * @return the id of the tile at that position
+     */
+    public byte getId(int x, int y) {
+        TileGrid chunk = getChunk(Math.floorDiv(x, CHUNK_SIZE), Math.floorDiv(y, CHUNK_SIZE));
+        return chunk.getId(Math.floorMod(x, CHUNK_SIZE), Math.floorMod(y, CHUNK_SIZE));
+    }
+
+    /**
+     * Returns the chunk at the given chunk coordinates, generating it if it is not in the cache. The chunk with
+     * coordinates chunkX, chunkY covers the world positions chunkX * CHUNK_SIZE up to (chunkX + 1) * CHUNK_SIZE - 1
+     * and likewise for y.
+     *
+     * @param chunkX x coordinate of the chunk
+     * @param chunkY y coordinate of the chunk
+     * @return the tiles of the chunk
+     */
+    public TileGrid getChunk(int chunkX, int chunkY) {
+        long key = key(chunkX, chunkY);
+        TileGrid chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = generateChunk(chunkX, chunkY);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Evicts every cached chunk that is further than radius chunks away from the chunk that holds world position
+     * x, y.
+     *
+     * @param x      x position in the world, usually the player's
+     * @param y      y position in the world, usually the player's
+     * @param radius how many chunks around the position should be kept
+     */
+    public void retainAround(int x, int y, int radius) {
+        int centerX = Math.floorDiv(x, CHUNK_SIZE);
+        int centerY = Math.floorDiv(y, CHUNK_SIZE);
+        Iterator<Long> keys = chunks.keySet().iterator();
+        while (keys.hasNext()) {
+            long key = keys.next();
+            int chunkX = (int) (key >> Integer.SIZE);
+            int chunkY = (int) key;
+            if (Math.abs((long) chunkX - centerX) > radius || Math.abs((long) chunkY - centerY) > radius) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns how many chunks are in the cache right now.
+     *
+     * @return the number of cached chunks
+     */
+    public int cachedChunks() {
+        return chunks.size();
+    }
+
+    /**
+     * Generates the rooms and hallways of a chunk, then digs a hallway to the doorway on each of its four borders
+     * before the balls are added.
+     */
+    private TileGrid generateChunk(int chunkX, int chunkY) {
+        WorldGenerator chunk = new WorldGenerator(chunkSeed(chunkX, chunkY), CHUNK_SIZE, CHUNK_SIZE,
+                ROOMS_PER_CHUNK, PlacementMode.FREE_RECTANGLES, false);
+        chunk.initializeMap();
+        chunk.createNewRooms();
+        chunk.digHallways(chunk.planHallways());
+        chunk.digDoorway(CHUNK_SIZE - 1, doorOffset(chunkX, chunkY, EAST));
+        chunk.digDoorway(0, doorOffset(chunkX - 1, chunkY, EAST));
+        chunk.digDoorway(doorOffset(chunkX, chunkY, NORTH), CHUNK_SIZE - 1);
+        chunk.digDoorway(doorOffset(chunkX, chunkY - 1, NORTH), 0);
+        chunk.addBallsToRooms();
+        return chunk.getGrid();
+    }
+
+    private long chunkSeed(int chunkX, int chunkY) {
+        return RandomUtils.chunkSeed(seed, chunkX, chunkY);
+    }
+
+    /**
+     * Returns where along a border the doorway is. The border is the east or north side of the given chunk, so both
+     * chunks next to it compute the same doorway.
+     */
+    private int doorOffset(int chunkX, int chunkY, int side) {
+        long hash = RandomUtils.mix(chunkSeed(chunkX, chunkY) + RandomUtils.GOLDEN_GAMMA * (side + 1));
+        return DOOR_MARGIN + (int) Math.floorMod(hash, (long) CHUNK_SIZE - 2 * DOOR_MARGIN);
+    }
+
+    private static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << Integer.SIZE) | (chunkY & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,132 @@
+package byow.Core.WorldGeneration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import static byow.Core.RandomUtils.uniform;
+
+/**
+ * Keeps the free space of a map as a set of disjoint rectangles (a guillotine structure), so that new rooms can be
+ * drawn only from space that can actually hold them. A room is always placed inside a single free rectangle, which is
+ * then cut into the (up to four) pieces around the room. Pieces that are too small for any room are dropped, so every
+ * room adds at most three rectangles and placing a room never takes more than a pass over the free rectangles.
+ */
+class FreeRectangles {
+    private final List<Rectangle> free;
+
+    /**
+     * Creates the free rectangles of an empty map.
+     *
+     * @param mapWidth  the width of the map
+     * @param mapHeight the height of the map
+     */
+    FreeRectangles(int mapWidth, int mapHeight) {
+        free = new ArrayList<>();
+        addIfRoomFits(new Rectangle(0, 0, mapWidth - 1, mapHeight - 1));
+    }
+
+    /**
+     * Draws a room with random size and position from the free space and marks its space as taken. If no free
+     * rectangle can hold the drawn size, the room falls back to the minimum size.
+     *
+     * @param generator a RandomGenerator, such as a java.util.Random or a room stream from RandomUtils, that will
+     *                  be used to generate the parameters
+     * @return returns the new room, or null if not even a room of the minimum size fits anymore
+     */
+    Room placeRoom(RandomGenerator generator) {
+        int width = uniform(generator, Room.MIN_WIDTH, Room.MAX_WIDTH);
+        int height = uniform(generator, Room.MIN_HEIGHT, Room.MAX_HEIGHT);
+        int index = pickFitting(generator, width, height);
+        if (index < 0) {
+            width = Room.MIN_WIDTH;
+            height = Room.MIN_HEIGHT;
+            index = pickFitting(generator, width, height);
+            if (index < 0) {
+                return null;
+            }
+        }
+        Rectangle target = free.get(index);
+        int x = uniform(generator, target.left, target.right - width + 2);
+        int y = uniform(generator, target.bottom, target.top - height + 2);
+        Room room = Room.createRoomAt(x, y, width, height);
+        cut(index, room);
+        return room;
+    }
+
+    /**
+     * Picks one of the free rectangles that can hold a width x height room, each with the same probability.
+     */
+    private int pickFitting(RandomGenerator generator, int width, int height) {
+        int fitting = 0;
+        for (Rectangle rectangle : free) {
+            if (rectangle.fits(width, height)) {
+                fitting++;
+            }
+        }
+        if (fitting == 0) {
+            return -1;
+        }
+        int chosen = uniform(generator, fitting);
+        for (int i = 0; i < free.size(); i++) {
+            if (free.get(i).fits(width, height)) {
+                if (chosen == 0) {
+                    return i;
+                }
+                chosen--;
+            }
+        }
+        throw new IllegalStateException("fitting rectangle disappeared");
+    }
+
+    /**
+     * Replaces the free rectangle at the given index with the pieces of it that are left around the room: a strip
+     * on each side that spans its full height, and the parts below and above the room.
+     */
+    private void cut(int index, Room room) {
+        Rectangle rectangle = free.get(index);
+        Rectangle last = free.remove(free.size() - 1);
+        if (index < free.size()) {
+            free.set(index, last);
+        }
+        if (room.getLeft() > rectangle.left) {
+            addIfRoomFits(new Rectangle(rectangle.left, rectangle.bottom, room.getLeft() - 1, rectangle.top));
+        }
+        if (room.getRight() < rectangle.right) {
+            addIfRoomFits(new Rectangle(room.getRight() + 1, rectangle.bottom, rectangle.right, rectangle.top));
+        }
+        if (room.getBottom() > rectangle.bottom) {
+            addIfRoomFits(new Rectangle(room.getLeft(), rectangle.bottom, room.getRight(), room.getBottom() - 1));
+        }
+        if (room.getTop() < rectangle.top) {
+            addIfRoomFits(new Rectangle(room.getLeft(), room.getTop() + 1, room.getRight(), rectangle.top));
+        }
+    }
+
+    private void addIfRoomFits(Rectangle rectangle) {
+        if (rectangle.fits(Room.MIN_WIDTH, Room.MIN_HEIGHT)) {
+            free.add(rectangle);
+        }
+    }
+
+    /**
+     * A free rectangle of the map. All bounds are inclusive.
+     */
+    private static final class Rectangle {
+        private final int left;
+        private final int bottom;
+        private final int right;
+        private final int top;
+
+        private Rectangle(int left, int bottom, int right, int top) {
+            this.left = left;
+            this.bottom = bottom;
+            this.right = right;
+            this.top = top;
+        }
+
+        private boolean fits(int width, int height) {
+            return right - left + 1 >= width && top - bottom + 1 >= height;
+        }
+    }
+}
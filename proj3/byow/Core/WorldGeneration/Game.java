@@ -5,25 +5,31 @@ import byow.TileEngine.TERenderer;
 import byow.TileEngine.TETile;
 import byow.TileEngine.Tileset;
 import edu.princeton.cs.algs4.In;
-import edu.princeton.cs.algs4.Out;
 import edu.princeton.cs.algs4.StdDraw;
 
 import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigInteger;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The front end of a game: reads the keys, draws the menus, the world and the HUD, and saves and loads. The rules of
+ * the game are in GameState, which this only feeds the actions to.
+ */
 public class Game {
     private static final int HUD_SIZE = 2;
-    private static final TETile PLAYER_TILE = Tileset.AVATAR;
-    private static final TETile BALL = Tileset.BALL;
-    private static final TETile FLOOR = Tileset.FLOOR;
-    private static final String SAVE_FILE = "saveFile.txt";
+    static final TETile DARK = Tileset.GRASS;
+    private static final String SAVE_FILE = "saveFile.bin";
+    private static final String LEGACY_SAVE_FILE = "saveFile.txt";
+    private static final String JOURNAL_FILE = "saveFile.journal";
     private static final String DIGITS = "10987654321";
-    private static final String POSSIBLE_ACTIONS = "aswdl";
+    private static final String POSSIBLE_ACTIONS = GameState.ACTIONS;
     private static final int PAUSE_TIME = 30;
+    private static final int TICKS_PER_SECOND = 60;
+    private static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
     private static final int MENU_FONT_SIZE = 36;
     private static final String GAME_OVER_MESSAGE = "Congratulations! You Won!";
     private static final int GAME_OVER_PAUSE = 1000;
@@ -32,99 +38,99 @@ public class Game {
     private final int height;
     private final TERenderer ter;
     private final InputSource inputSource;
-    private final List<Character> playerActions;
+    private final ActionJournal.SyncPolicy journalPolicy;
+    private final HudLayer hud;
+    private final ActionHistory pendingActions;
     private final int worldHeight;
-    private int winCondition;
-    private int ballsCollected;
-    private TETile[][] map;
-    private TETile[][] toShow;
-    private TETile[][] lightsOn;
-    private TETile[][] lightsOff;
-    private Player player;
+    private GameState state;
     private long seed;
-    private boolean gameOver;
-    private TETile onHold;
-    private boolean lights = true;
-    private String date;
+    private boolean quit;
+    private SaveSnapshot loaded;
+    private boolean recovered;
+    private ActionJournal journal;
+    private TripleBuffer<GameFrame> frames;
+    private RuntimeException logicFailure;
 
     public Game(int width, int height, TERenderer ter, InputSource inputSource) {
+        this(width, height, ter, inputSource, null);
+    }
+
+    /**
+     * Creates a game that keeps a journal of its actions, so that it can be recovered if it ends without being
+     * saved.
+     * @param journalPolicy when to force the journal to the disk, or null to not keep a journal
+     */
+    public Game(int width, int height, TERenderer ter, InputSource inputSource,
+                ActionJournal.SyncPolicy journalPolicy) {
         this.width = width;
         this.worldHeight = height;
         this.height = height + HUD_SIZE;
         this.ter = ter;
         this.inputSource = inputSource;
-        this.playerActions = new ArrayList<>();
-        this.ballsCollected = 0;
-        this.onHold = FLOOR;
-    }
-
-    private void updateWorld(long s) {
-        WorldGenerator world;
-        world = new WorldGenerator(s, width, worldHeight);
-        this.map = world.getMap();
-        this.player = new Player(world.getStartingRoomX(), world.getStartingRoomY(), PLAYER_TILE);
-        this.lightsOn = this.map;
-        this.toShow = this.lightsOn;
-        updateMaps();
-        this.winCondition = world.getNumRooms() - 1;
-    }
-
-    private void updateMaps() {
-        lightsOff = new TETile[map.length][map[0].length];
-        int xPos = player.getxPos();
-        int yPos = player.getyPos();
-
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < worldHeight; y++) {
-                if (isWithinPlayerLight(x, xPos, y, yPos)) {
-                    lightsOff[x][y] = (x == xPos && y == yPos) ? player.getAvatar() : map[x][y];
-                } else {
-                    lightsOff[x][y] = Tileset.GRASS;
-                }
-            }
-        }
-
-        lightsOn = map;
-        toShow = (lights) ? lightsOff : lightsOn;
+        this.journalPolicy = journalPolicy;
+        this.hud = new HudLayer(width, this.height, HUD_SIZE);
+        this.pendingActions = new ActionHistory();
     }
 
-    private boolean isWithinPlayerLight(int x, int playerX, int y, int playerY) {
-        return (x >= playerX - 4 && x <= playerX + 4) && (y >= playerY - 4 && y <= playerY + 4);
+    /**
+     * Copies the game into the logic thread's frame and publishes it to the render thread.
+     */
+    private void publishFrame() {
+        state.copyTo(frames.back());
+        frames.publish();
     }
 
-    private void drawHUD(String s) {
-        this.ter.renderFrame(toShow);
-        if (!gameOver) {
-            StdDraw.setPenColor(StdDraw.WHITE);
-            StdDraw.line(0, (double) this.height - HUD_SIZE, this.width, (double) this.height - HUD_SIZE);
-            StdDraw.textLeft(0, this.height - (double) HUD_SIZE / 2, s);
-            updateDate();
-            String ballSoFar = ballsUpdate();
-            String lightStatus = onOrOff();
-            StdDraw.textLeft((double) this.width / 4, this.height - (double) HUD_SIZE / 2, lightStatus);
-            StdDraw.textRight((double) 3 * this.width / 4, this.height - (double) HUD_SIZE / 2, ballSoFar);
-            StdDraw.textRight(this.width, this.height - (double) HUD_SIZE / 2, "Date and Time: " + this.date);
+    /**
+     * Renders a frame of the world and the HUD. The renderer only draws the tiles that changed since the last
+     * frame, and the HUD is only redrawn when something it shows changed, so a frame where nothing happened draws
+     * nothing. The world goes first, because a renderer that forgot its last frame clears the whole screen.
+     * @param hovered the tile under the mouse, or null if the mouse is not over the world
+     */
+    private void drawHUD(GameFrame frame, TETile hovered) {
+        if (frame.lights()) {
+            this.ter.renderFrame(frame.map(), frame.light(), DARK);
+        } else {
+            this.ter.renderFrame(frame.map());
+        }
+        if (hud.draw(hovered, frame)) {
+            StdDraw.show();
         }
-        StdDraw.show();
-        StdDraw.pause(PAUSE_TIME);
     }
 
-    private String onOrOff() {
-        return "Press L to turn lights " + ((lights) ? "off" : "on");
+    /**
+     * Draws the last frame the logic thread published, with the tile under the mouse in the HUD.
+     */
+    private void drawLatestFrame() {
+        GameFrame frame = latestFrame();
+        int xPos = (int) StdDraw.mouseX();
+        int yPos = (int) StdDraw.mouseY();
+        if (isValidTile(xPos, yPos)) {
+            drawHUD(frame, frame.shownTile(xPos, yPos, DARK));
+        } else {
+            drawHUD(frame, null);
+        }
     }
 
-    private String ballsUpdate() {
-        return "Dragon Balls Collected: " + ballsCollected + " and You need " + winCondition;
+    /**
+     * Makes the next frame redraw the whole world and HUD, for after something else was drawn over them.
+     */
+    private void forgetFrame() {
+        this.ter.invalidate();
+        hud.invalidate();
     }
 
     // This is from ChatGPT
     private void drawText(String text, double x, double y) {
         StdDraw.setPenColor(StdDraw.WHITE);
-        StdDraw.setFont(new Font("Arial", Font.BOLD, MENU_FONT_SIZE));
+        StdDraw.setFont(MAIN_FONT);
         StdDraw.text(x, y, text);
     }
 
-    private void startingHUD() {
+    /**
+     * Shows the main menu until a new game is started or a saved one is loaded.
+     * @return false if the player quit instead, or there was no saved game to load
+     */
+    private boolean startingHUD() {
         StdDraw.clear(StdDraw.BLACK);
 
         double centerX = (double) this.width / 2;
@@ -136,26 +142,20 @@ public class Game {
 
         StdDraw.show();
 
-        boolean exitLoop = false;
-        while (!exitLoop) {
-            if (inputSource.possibleInput()) {
-                char key = Character.toLowerCase(inputSource.getNextKey());
-                switch (key) {
-                    case 'n' -> {
-                        this.seed = Long.parseLong(inputSeedHUD());
-                        exitLoop = true;
-                    }
-                    case 'l' -> {
-                        String values = readFile();
-                        if (values.isEmpty()) {
-                            System.exit(0);
-                        }
-                        parseInputString(values);
-                        exitLoop = true;
-                    }
-                    case 'q' -> System.exit(0);
-                    default -> { // do nothing
-                    }
+        while (true) {
+            char key = Character.toLowerCase(inputSource.awaitKey());
+            switch (key) {
+                case 'n' -> {
+                    this.seed = Long.parseLong(inputSeedHUD());
+                    return true;
+                }
+                case 'l' -> {
+                    return load();
+                }
+                case 'q', InputSource.END_OF_INPUT -> {
+                    return false;
+                }
+                default -> { // do nothing
                 }
             }
         }
@@ -177,14 +177,11 @@ public class Game {
                 StdDraw.text(centerX, centerY - 2.5, "Can't enter anymore digits.");
             }
             StdDraw.show();
-            StdDraw.pause(PAUSE_TIME / 3);
-            if (inputSource.possibleInput()) {
-                char toAdd = Character.toLowerCase(inputSource.getNextKey());
-                if (toAdd == 's') {
-                    break;
-                } else if (DIGITS.indexOf(toAdd) != -1 && toReturn.length() < 18) {
-                    toReturn.append(toAdd);
-                }
+            char toAdd = Character.toLowerCase(inputSource.awaitKey());
+            if (toAdd == 's' || toAdd == InputSource.END_OF_INPUT) {
+                break;
+            } else if (DIGITS.indexOf(toAdd) != -1 && toReturn.length() < 18) {
+                toReturn.append(toAdd);
             }
         }
         if (toReturn.isEmpty()) {
@@ -204,14 +201,12 @@ public class Game {
     private String inputSeed() {
         StringBuilder toReturn = new StringBuilder();
         while (true) {
-            if (inputSource.possibleInput()) {
-                char toAdd = Character.toLowerCase(inputSource.getNextKey());
-                if (toAdd == 's') {
-                    break;
-                }
-                if (DIGITS.indexOf(toAdd) != -1) {
-                    toReturn.append(toAdd);
-                }
+            char toAdd = Character.toLowerCase(inputSource.awaitKey());
+            if (toAdd == 's' || toAdd == InputSource.END_OF_INPUT) {
+                break;
+            }
+            if (DIGITS.indexOf(toAdd) != -1) {
+                toReturn.append(toAdd);
             }
         }
         if (toReturn.isEmpty()) {
@@ -224,91 +219,174 @@ public class Game {
     private void parseInputString(String input) {
         int indexS = input.indexOf('S');
         this.seed = Long.parseLong(input.substring(1, indexS));
-        String charArraySubstring = input.substring(indexS + 1, input.indexOf(']'));
-        String charArray = charArraySubstring.replaceAll("\\s+", "");
-        for (int i = 0; i < charArray.length(); i++) {
-            if (POSSIBLE_ACTIONS.indexOf(charArray.charAt(i)) != -1) {
-                playerActions.add(charArray.charAt(i));
+        int end = input.indexOf(']', indexS);
+        for (int i = indexS + 1; i < end; i++) {
+            if (POSSIBLE_ACTIONS.indexOf(input.charAt(i)) != -1) {
+                pendingActions.add(input.charAt(i));
             }
         }
     }
 
+    /**
+     * Plays the game from the input source without drawing anything. If the input ends before a world was started
+     * or loaded, there is no world and getMap() returns null.
+     */
     public void startGameWithStringInputSource() {
         boolean exitLoop = false;
         while (!exitLoop) {
-            if (inputSource.possibleInput()) {
-                char key = Character.toLowerCase(inputSource.getNextKey());
-                switch (key) {
-                    case 'n' -> {
-                        this.seed = Long.parseLong(inputSeed());
-                        exitLoop = true;
-                    }
-                    case 'l' -> {
-                        String values = readFile();
-                        if (values == null) {
-                            break;
-                        }
-                        parseInputString(values);
-                        exitLoop = true;
+            char key = Character.toLowerCase(inputSource.awaitKey());
+            switch (key) {
+                case 'n' -> {
+                    this.seed = Long.parseLong(inputSeed());
+                    exitLoop = true;
+                }
+                case 'l' -> {
+                    if (!load()) {
+                        break;
                     }
-                    default -> {/* do nothing */}
+                    exitLoop = true;
+                }
+                case InputSource.END_OF_INPUT -> {
+                    return;
                 }
+                default -> {/* do nothing */}
             }
         }
-        updateWorld(this.seed);
-        onHold = WorldGenerator.FLOOR;
-        swap(player.getxPos(), player.getyPos(), player.getxPos(), player.getyPos());
-        for (char action : playerActions) {
-            doNextAction(Character.toLowerCase(action), player.getxPos(), player.getyPos());
-        }
+        startWorld();
+        replayPendingActions();
+        startJournal();
         while (inputSource.possibleInput()) {
             char key = Character.toLowerCase(inputSource.getNextKey());
             if (key == ':') {
                 quitStringInput(inputSource);
             } else if (POSSIBLE_ACTIONS.indexOf(key) != 1) {
-                doNextAction(key, player.getxPos(), player.getyPos());
-                playerActions.add(key);
+                recordAction(key);
             }
         }
     }
 
+    /**
+     * Plays the game with the keyboard and the screen, from the main menu until the player quits or wins. Returns
+     * instead of ending the program, so the caller decides what happens next.
+     */
     public void startGame() {
         this.ter.initialize(this.width, this.height);
-        startingHUD();
-        updateWorld(this.seed);
-        this.gameOver = false;
-        swap(player.getxPos(), player.getyPos(), player.getxPos(), player.getyPos());
+        if (!startingHUD()) {
+            return;
+        }
+        startWorld();
         drawIntroScreen();
+        forgetFrame();
         StdDraw.setFont();
-        if (!playerActions.isEmpty()) {
-            for (char key : playerActions) {
-                doNextAction(key, player.getxPos(), player.getyPos());
-            }
+        replayPendingActions();
+        startJournal();
+        startFrames();
+        Thread logic = new Thread(this::runLogic, "game-logic");
+        logic.start();
+        while (logic.isAlive()) {
+            drawLatestFrame();
+            StdDraw.pause(PAUSE_TIME);
         }
-        while (!gameOver) {
-            int xPos = (int) StdDraw.mouseX();
-            int yPos = (int) StdDraw.mouseY();
-            if (isValidTile(xPos, yPos)) {
-                String tile = toShow[xPos][yPos].description() + " tile";
-                drawHUD(tile);
+        joinLogic(logic);
+        drawLatestFrame();
+        if (quit) {
+            return;
+        }
+        if (journal != null) {
+            journal.discard();
+            journal = null;
+        }
+        drawGameOverHUD();
+    }
+
+    /**
+     * Starts a new game from the seed without drawing anything, so that the steady-state loop can be run and
+     * measured headless with tick() and latestFrame().
+     * @param s the seed of the world
+     */
+    void startHeadless(long s) {
+        this.seed = s;
+        startWorld();
+        startFrames();
+    }
+
+    private void startFrames() {
+        this.frames = new TripleBuffer<>(() -> new GameFrame(width, worldHeight));
+        publishFrame();
+    }
+
+    /**
+     * Returns the latest frame the logic published. Only the render thread may call this.
+     * @return the latest frame
+     */
+    GameFrame latestFrame() {
+        return frames.latest();
+    }
+
+    /**
+     * Runs one tick of the game logic: handles every key typed since the last tick and publishes a frame if
+     * anything changed. Nothing is allocated, apart from the action history and the journal growing their
+     * buffers now and then.
+     * @return false once the game is won or the player quit
+     */
+    boolean tick() {
+        boolean changed = false;
+        while (!quit && inputSource.possibleInput()) {
+            char key = inputSource.getNextKey();
+            if (key == 'q') {
+                quit(inputSource);
             } else {
-                drawHUD("grass tile");
+                changed |= recordAction(key);
             }
-            if (inputSource.possibleInput()) {
-                char key = inputSource.getNextKey();
-                if (key == 'q') {
-                    quit(inputSource);
-                } else if (POSSIBLE_ACTIONS.indexOf(key) != -1) {
-                    doNextAction(key, player.getxPos(), player.getyPos());
-                    playerActions.add(key);
+        }
+        if (changed) {
+            publishFrame();
+        }
+        return !quit && !state.isWon();
+    }
+
+    /**
+     * Runs the game logic on its own thread at a fixed rate of TICKS_PER_SECOND. Every tick handles all the keys
+     * typed since the last one, so how fast keys are handled doesn't depend on how long a frame takes to draw. The
+     * thread ends once the game is won or the player quit.
+     */
+    private void runLogic() {
+        try {
+            long nextTick = System.nanoTime();
+            while (tick()) {
+                nextTick += TICK_NANOS;
+                long wait = nextTick - System.nanoTime();
+                if (wait <= 0) {
+                    nextTick = System.nanoTime();
+                }
+                while (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    wait = nextTick - System.nanoTime();
                 }
             }
-            StdDraw.pause(PAUSE_TIME / 3);
-            if (ballsCollected >= winCondition) {
-                gameOver = true;
+        } catch (RuntimeException e) {
+            logicFailure = e;
+        }
+    }
+
+    /**
+     * Waits for the logic thread to end and passes on anything it threw.
+     */
+    private void joinLogic(Thread logic) {
+        boolean interrupted = false;
+        while (logic.isAlive()) {
+            try {
+                logic.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
             }
         }
-        drawGameOverHUD();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (logicFailure != null) {
+            throw logicFailure;
+        }
     }
 
     private void drawIntroScreen() {
@@ -316,7 +394,7 @@ public class Game {
         for (int i = 0; i < 3; i++) {
             StdDraw.clear(StdDraw.BLACK);
             StdDraw.text(((double) this.width / 2), ((double) this.height / 2 + 3),
-                    "Collect " + winCondition + " DragonBalls.");
+                    "Collect " + state.winCondition() + " DragonBalls.");
             StdDraw.text(((double) this.width / 2), ((double) this.height / 2) - 3,
                     "The game will start in " + (3 - i) + " seconds.");
             StdDraw.show();
@@ -334,14 +412,6 @@ public class Game {
             StdDraw.show();
             StdDraw.pause(GAME_OVER_PAUSE);
         }
-        System.exit(0);
-    }
-
-    // Got this from ChatGPT
-    private void updateDate() {
-        Date newDate = new Date();
-        SimpleDateFormat formatter = new SimpleDateFormat("EEE MMM dd yyyy HH:mm:ss");
-        this.date = formatter.format(newDate);
     }
 
     // From ChatGPT
@@ -349,96 +419,167 @@ public class Game {
         return (xPos >= 0 && xPos < width && yPos >= 0 && yPos < height - HUD_SIZE);
     }
 
-    // From ChatGPT
-    private boolean isValidMove(int x, int y) {
-        return x >= 0 && x < width && y >= 0 && y < height && map[x][y] != WorldGenerator.WALL;
+    private void quit(InputSource input) {
+        char nextKey = Character.toLowerCase(input.awaitKey());
+        if (nextKey == 'q') {
+            saveGame();
+            quit = true;
+        }
     }
 
-
-    private void swap(int x1, int y1, int x2, int y2) {
-        map[x1][y1] = onHold;
-        onHold = map[x2][y2];
-        map[x2][y2] = player.getAvatar();
-        if (onHold == BALL) {
-            ballsCollected++;
-            onHold = FLOOR;
+    private void quitStringInput(InputSource input) {
+        char nextKey = Character.toLowerCase(input.awaitKey());
+        if (nextKey == 'q') {
+            saveGame();
         }
     }
 
-    // Switch case code from ChatGPT
-    private void doNextAction(Character c, int xPos, int yPos) {
-        int newXPos = xPos;
-        int newYPos = yPos;
-
-        switch (c) {
-            case 'w' -> newYPos += 1;
-            case 'a' -> newXPos -= 1;
-            case 's' -> newYPos -= 1;
-            case 'd' -> newXPos += 1;
-            case 'l' -> switchMaps();
-            default -> {
-                return; // do nothing if invalid character input
-            }
+    /**
+     * Generates the world from the seed and puts the player in it, at the start of a new game or where the player
+     * was when the loaded game was saved.
+     */
+    private void startWorld() {
+        if (loaded == null) {
+            this.state = new GameState(seed, width, worldHeight);
+            return;
         }
-        if (isValidMove(newXPos, newYPos)) {
-            player.setxPos(newXPos);
-            player.setyPos(newYPos);
-            swap(xPos, yPos, newXPos, newYPos);
-            updateMaps();
+        if (loaded.width != width || loaded.height != worldHeight) {
+            throw new IllegalArgumentException("saved game doesn't fit a " + width + "x" + worldHeight + " world");
         }
+        this.state = GameState.restore(loaded);
     }
 
-    private void switchMaps() {
-        if (!lights) {
-            toShow = lightsOn;
-            lights = true;
+    /**
+     * Starts the journal once the world is set up, if this game keeps one. A game that was recovered from a journal
+     * is saved first, so the recovered state is safe before the old journal is replaced. A new game that finds the
+     * journal of a game that ended without being saved saves that game instead, so starting over doesn't lose it.
+     */
+    private void startJournal() {
+        if (journalPolicy == null) {
+            return;
+        }
+        if (recovered) {
+            saveGame();
+            recovered = false;
         } else {
-            toShow = lightsOff;
-            lights = false;
+            saveLeftoverJournal();
         }
+        journal = new ActionJournal(Paths.get(JOURNAL_FILE), state.snapshot(), journalPolicy);
     }
 
-    private void quit(InputSource input) {
-        char nextKey;
-        do {
-            if (input.possibleInput()) {
-                nextKey = Character.toLowerCase(input.getNextKey());
-                if (nextKey == 'q') {
-                    writeFile("N" + seed + "S" + playerActions);
-                    System.exit(0);
-                } else {
-                    break;
-                }
+    /**
+     * Saves the game that a leftover journal holds, as loading it would have recovered it. A journal that can't be
+     * recovered, or whose snapshot doesn't fit the world of its seed, is left to be replaced.
+     */
+    private void saveLeftoverJournal() {
+        try {
+            ActionJournal.Recovery recovery = ActionJournal.recover(Paths.get(JOURNAL_FILE));
+            if (recovery == null) {
+                return;
             }
-        } while (true);
+            GameState leftover;
+            try {
+                leftover = GameState.restore(recovery.base);
+            } catch (IllegalArgumentException e) {
+                return;
+            }
+            ActionHistory actions = new ActionHistory();
+            for (byte action : recovery.actions) {
+                actions.add((char) action);
+            }
+            leftover.replay(actions);
+            leftover.snapshot().write(Paths.get(SAVE_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private void quitStringInput(InputSource input) {
-        char nextKey;
-        do {
-            if (input.possibleInput()) {
-                nextKey = Character.toLowerCase(input.getNextKey());
-                if (nextKey == 'q') {
-                    writeFile("N" + seed + "S" + playerActions);
+    /**
+     * Replays the actions of a game that was loaded from an old text save or recovered from a journal, a run of
+     * actions at a time.
+     */
+    private void replayPendingActions() {
+        state.replay(pendingActions);
+    }
+
+    /**
+     * Takes an action and adds it to the journal. Keys that aren't actions do nothing, so they are not kept.
+     * @return whether the key was an action
+     */
+    private boolean recordAction(char key) {
+        if (!state.step(key)) {
+            return false;
+        }
+        if (journal != null) {
+            journal.append(key);
+        }
+        return true;
+    }
+
+    /**
+     * Loads the saved game. If there is a journal, the game that wrote it ended without being saved, so it is
+     * recovered from the journal instead. Saves from before snapshots were used are text files with every action
+     * of the game, which are still loaded by replaying the actions.
+     * @return false if there is no saved game
+     */
+    private boolean load() {
+        try {
+            ActionJournal.Recovery recovery = ActionJournal.recover(Paths.get(JOURNAL_FILE));
+            if (recovery != null) {
+                this.loaded = recovery.base;
+                this.seed = loaded.seed;
+                for (byte action : recovery.actions) {
+                    pendingActions.add((char) action);
                 }
-                break;
+                this.recovered = true;
+                return true;
             }
-        } while (true);
+            this.loaded = SaveSnapshot.read(Paths.get(SAVE_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (loaded != null) {
+            this.seed = loaded.seed;
+            return true;
+        }
+        if (!Files.exists(Paths.get(LEGACY_SAVE_FILE))) {
+            return false;
+        }
+        String values = readFile();
+        if (values.isEmpty()) {
+            return false;
+        }
+        parseInputString(values);
+        return true;
+    }
+
+    /**
+     * Saves the game and deletes the journal, which the save makes unnecessary.
+     */
+    private void saveGame() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        try {
+            state.snapshot().write(Paths.get(SAVE_FILE));
+            Files.deleteIfExists(Paths.get(JOURNAL_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private String readFile() {
         String content;
-        In reader = new In(SAVE_FILE);
+        In reader = new In(LEGACY_SAVE_FILE);
         content = reader.readAll();
         return content;
     }
 
-    private void writeFile(String toSave) {
-        Out writer = new Out(SAVE_FILE);
-        writer.print(toSave);
-    }
-
     public TETile[][] getMap() {
-        return this.map;
+        if (this.state == null) {
+            return null;
+        }
+        return this.state.toArray();
     }
 }
@@ -0,0 +1,217 @@
+package byow.Core.WorldGeneration;
+
+import byow.TileEngine.TETile;
+import byow.TileEngine.TileGrid;
+import byow.TileEngine.Tileset;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Many games of the same size played side by side, for running large numbers of automated players at once. Instead
+ * of a GameState per game, the batch stores every game in flat arrays: the tile ids of all the worlds one after the
+ * other in a single byte[], and the player position, the balls collected and the lights switch of game i at index i
+ * of an int[] each. step() takes one action in every game, and can split the games across the threads of a
+ * fork-join pool.
+ * <p>
+ * Every game follows the same rules as GameState.step(), so game i ends up with the same tiles, player and balls as
+ * a GameState with the same seed that was given the same actions. The light around the player is left out, since it
+ * only matters for drawing.
+ */
+public final class GameBatch {
+    private static final byte AVATAR = Tileset.AVATAR_ID;
+    private static final byte BALL = Tileset.BALL_ID;
+    private static final byte FLOOR = Tileset.FLOOR_ID;
+    private static final byte WALL = WorldGenerator.WALL_ID;
+    private static final int GAMES_PER_TASK = 64;
+
+    private final int count;
+    private final int width;
+    private final int height;
+    private final int cells;
+    private final long[] seeds;
+    private final byte[] tiles;
+    private final int[] playerX;
+    private final int[] playerY;
+    private final int[] ballsCollected;
+    private final int[] winCondition;
+    private final int[] lights;
+    private final byte[] onHold;
+
+    /**
+     * Starts a new game for every seed, generating the worlds on the common fork-join pool.
+     * @param seeds the seed of every game, so game i is generated from seeds[i]
+     * @param width width of every world in tiles
+     * @param height height of every world in tiles
+     */
+    public GameBatch(long[] seeds, int width, int height) {
+        this(ForkJoinPool.commonPool(), seeds, width, height);
+    }
+
+    /**
+     * Same as GameBatch(seeds, width, height), but generates the worlds on the given pool.
+     * @param pool the pool whose threads generate the worlds
+     * @param seeds the seed of every game, so game i is generated from seeds[i]
+     * @param width width of every world in tiles
+     * @param height height of every world in tiles
+     */
+    public GameBatch(ForkJoinPool pool, long[] seeds, int width, int height) {
+        this.count = seeds.length;
+        this.width = width;
+        this.height = height;
+        this.cells = Math.multiplyExact(width, height);
+        this.seeds = seeds.clone();
+        this.tiles = new byte[Math.multiplyExact(count, cells)];
+        this.playerX = new int[count];
+        this.playerY = new int[count];
+        this.ballsCollected = new int[count];
+        this.winCondition = new int[count];
+        this.lights = new int[count];
+        this.onHold = new byte[count];
+        pool.invoke(new RangeTask(0, count, GAMES_PER_TASK, (from, to) -> startGames((int) from, (int) to)));
+    }
+
+    private void startGames(int from, int to) {
+        for (int i = from; i < to; i++) {
+            GameState state = new GameState(seeds[i], width, height);
+            state.copyTilesTo(tiles, i * cells);
+            playerX[i] = state.playerX();
+            playerY[i] = state.playerY();
+            ballsCollected[i] = state.ballsCollected();
+            winCondition[i] = state.winCondition();
+            lights[i] = state.lights() ? 1 : 0;
+            onHold[i] = FLOOR;
+        }
+    }
+
+    /**
+     * Takes one action in every game, on the calling thread.
+     * @param actions the action of every game, so game i takes actions[i]; a key that isn't one of
+     *                GameState.ACTIONS leaves its game as it is
+     */
+    public void step(char[] actions) {
+        checkActions(actions);
+        stepGames(actions, 0, count);
+    }
+
+    /**
+     * Same as step(actions), but splits the games across the threads of the pool.
+     * @param pool the pool whose threads take the actions
+     * @param actions the action of every game, so game i takes actions[i]; a key that isn't one of
+     *                GameState.ACTIONS leaves its game as it is
+     */
+    public void step(ForkJoinPool pool, char[] actions) {
+        checkActions(actions);
+        pool.invoke(new RangeTask(0, count, GAMES_PER_TASK, (from, to) -> stepGames(actions, (int) from, (int) to)));
+    }
+
+    private void checkActions(char[] actions) {
+        if (actions.length != count) {
+            throw new IllegalArgumentException(actions.length + " actions for " + count + " games");
+        }
+    }
+
+    private void stepGames(char[] actions, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int x = playerX[i];
+            int y = playerY[i];
+            switch (actions[i]) {
+                case 'w' -> y++;
+                case 'a' -> x--;
+                case 's' -> y--;
+                case 'd' -> x++;
+                case 'l' -> {
+                    lights[i] ^= 1;
+                    continue;
+                }
+                default -> {
+                    continue;
+                }
+            }
+            if (x < 0 || x >= width || y < 0 || y >= height) {
+                continue;
+            }
+            int base = i * cells;
+            int target = base + x * height + y;
+            byte tile = tiles[target];
+            if (tile == WALL) {
+                continue;
+            }
+            tiles[base + playerX[i] * height + playerY[i]] = onHold[i];
+            tiles[target] = AVATAR;
+            if (tile == BALL) {
+                ballsCollected[i]++;
+                tile = FLOOR;
+            }
+            onHold[i] = tile;
+            playerX[i] = x;
+            playerY[i] = y;
+        }
+    }
+
+    /** @return the number of games in the batch */
+    public int size() {
+        return count;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public long seed(int game) {
+        return seeds[game];
+    }
+
+    public int playerX(int game) {
+        return playerX[game];
+    }
+
+    public int playerY(int game) {
+        return playerY[game];
+    }
+
+    public int ballsCollected(int game) {
+        return ballsCollected[game];
+    }
+
+    /** @return how many balls have to be collected to win the game */
+    public int winCondition(int game) {
+        return winCondition[game];
+    }
+
+    /** @return whether the lights of the game are off, as GameState.lights() */
+    public boolean lights(int game) {
+        return lights[game] != 0;
+    }
+
+    public boolean isWon(int game) {
+        return ballsCollected[game] >= winCondition[game];
+    }
+
+    /**
+     * Returns the id of the tile at x, y in a game, with the player on it if they are there.
+     * @throws IndexOutOfBoundsException if x, y is outside of the world
+     */
+    public byte tileId(int game, int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("position x=" + x + ", y=" + y + " is outside the world");
+        }
+        return tiles[game * cells + x * height + y];
+    }
+
+    /** @return a copy of the world of a game as an array of tiles, with the player in it */
+    public TETile[][] toArray(int game) {
+        TETile[][] world = new TETile[width][height];
+        int i = game * cells;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                world[x][y] = TileGrid.tile(tiles[i]);
+                i++;
+            }
+        }
+        return world;
+    }
+}
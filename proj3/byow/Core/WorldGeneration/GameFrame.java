@@ -0,0 +1,63 @@
+package byow.Core.WorldGeneration;
+
+import byow.TileEngine.TETile;
+import byow.TileEngine.TileGrid;
+import byow.TileEngine.VisibilityMask;
+
+/**
+ * Everything the render thread needs to draw one frame of a game: a copy of the world and the light, and the
+ * numbers the HUD shows. The logic thread copies the game into a frame and publishes it through a TripleBuffer, and
+ * the frame doesn't change while the render thread holds it.
+ */
+final class GameFrame {
+    private final TileGrid map;
+    private final VisibilityMask light;
+    private boolean lights;
+    private int ballsCollected;
+    private int winCondition;
+
+    GameFrame(int width, int height) {
+        this.map = new TileGrid(width, height);
+        this.light = new VisibilityMask(width, height);
+    }
+
+    /**
+     * Copies the state of a game into this frame, without allocating anything.
+     */
+    void copyFrom(TileGrid gameMap, VisibilityMask gameLight, boolean gameLights, int gameBallsCollected,
+                  int gameWinCondition) {
+        map.copyFrom(gameMap);
+        light.copyFrom(gameLight);
+        lights = gameLights;
+        ballsCollected = gameBallsCollected;
+        winCondition = gameWinCondition;
+    }
+
+    /**
+     * Returns the tile the player sees at x, y: the map inside the light, and darkness outside of it while the
+     * lights are off.
+     */
+    TETile shownTile(int x, int y, TETile dark) {
+        return (lights && !light.isVisible(x, y)) ? dark : map.get(x, y);
+    }
+
+    TileGrid map() {
+        return map;
+    }
+
+    VisibilityMask light() {
+        return light;
+    }
+
+    boolean lights() {
+        return lights;
+    }
+
+    int ballsCollected() {
+        return ballsCollected;
+    }
+
+    int winCondition() {
+        return winCondition;
+    }
+}
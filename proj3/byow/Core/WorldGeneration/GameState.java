@@ -0,0 +1,302 @@
+package byow.Core.WorldGeneration;
+
+import byow.TileEngine.TETile;
+import byow.TileEngine.TileGrid;
+import byow.TileEngine.Tileset;
+import byow.TileEngine.VisibilityMask;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rules of the game without any drawing or input: a world, the player in it, the balls they collected and the
+ * lights switch. step() takes one action, snapshot() saves the state, and the query methods read it. Nothing here
+ * touches StdDraw, waits for a key or ends the program, so a game can be simulated headless, and Game is only the
+ * front end that reads keys, draws the state and saves it.
+ * <p>
+ * The light around the player is only derived from where the player is, so a step only marks it as stale and it is
+ * moved the next time something reads it. A step that moves the player is then a few array accesses, and simulating
+ * a game costs nothing for the frames nobody looks at.
+ */
+public final class GameState {
+    /** The keys step() takes as actions: a, s, w and d move the player and l switches the lights. */
+    public static final String ACTIONS = ActionHistory.ACTIONS;
+    private static final TETile PLAYER_TILE = Tileset.AVATAR;
+    private static final byte BALL = Tileset.BALL_ID;
+    private static final byte FLOOR = Tileset.FLOOR_ID;
+    private static final int LIGHT_RADIUS = 4;
+
+    private final long seed;
+    private final int width;
+    private final int height;
+    private final TileGrid map;
+    private final VisibilityMask light;
+    private final Player player;
+    private final int winCondition;
+    private final ActionHistory playerActions;
+    private final List<Point> collectedBalls;
+    private int ballsCollected;
+    private byte onHold;
+    private boolean lights = true;
+    private boolean lightStale;
+
+    /**
+     * Generates the world from the seed and puts the player at the start of it, as at the start of a new game. A
+     * world that is in WorldCache.shared() isn't generated again; the game gets a copy-on-write view of it instead.
+     * @param seed the seed of the world
+     * @param width width of the world in tiles
+     * @param height height of the world in tiles
+     */
+    public GameState(long seed, int width, int height) {
+        GeneratedWorld world = WorldCache.shared().get(seed, width, height);
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.map = world.getGrid();
+        this.player = new Player(world.getStartingRoomX(), world.getStartingRoomY(), PLAYER_TILE);
+        this.light = new VisibilityMask(width, height);
+        this.winCondition = world.getNumRooms() - 1;
+        this.playerActions = new ActionHistory();
+        this.collectedBalls = new ArrayList<>();
+        this.onHold = FLOOR;
+        swap(player.getxPos(), player.getyPos(), player.getxPos(), player.getyPos());
+        this.lightStale = true;
+    }
+
+    /**
+     * Restores a saved game: the world is generated from the seed of the snapshot, the player is taken off the
+     * start, the collected balls are removed, and the player is put back where they were with the lights as they
+     * were.
+     * @param snapshot the saved game
+     * @return the state of the saved game
+     * @throws IllegalArgumentException if the snapshot doesn't fit the world generated from its seed
+     */
+    public static GameState restore(SaveSnapshot snapshot) {
+        GameState state = new GameState(snapshot.seed, snapshot.width, snapshot.height);
+        state.apply(snapshot);
+        return state;
+    }
+
+    private void apply(SaveSnapshot snapshot) {
+        if (!map.contains(snapshot.playerX, snapshot.playerY)) {
+            throw new IllegalArgumentException("saved player at " + snapshot.playerX + ", " + snapshot.playerY
+                    + " is outside of the world");
+        }
+        map.setId(player.getxPos(), player.getyPos(), onHold);
+        for (int i = 0; i < snapshot.ballX.length; i++) {
+            int x = snapshot.ballX[i];
+            int y = snapshot.ballY[i];
+            if (!map.contains(x, y) || map.getId(x, y) != BALL) {
+                throw new IllegalArgumentException("saved game collected a ball at " + x + ", " + y
+                        + " where there is none");
+            }
+            map.setId(x, y, FLOOR);
+            collectedBalls.add(new Point(x, y));
+        }
+        player.setxPos(snapshot.playerX);
+        player.setyPos(snapshot.playerY);
+        map.set(snapshot.playerX, snapshot.playerY, player.getAvatar());
+        this.onHold = snapshot.onHold;
+        this.lights = snapshot.lights;
+        this.ballsCollected = snapshot.ballsCollected;
+        playerActions.addAll(snapshot.history);
+        this.lightStale = true;
+    }
+
+    /**
+     * Takes one action and adds it to the history. Keys that aren't actions do nothing and are not kept, and a move
+     * into a wall is kept but leaves the player where they are.
+     * @param action the key of the action, one of the characters in ACTIONS
+     * @return whether the key was an action
+     */
+    public boolean step(char action) {
+        int dx = 0;
+        int dy = 0;
+        switch (action) {
+            case 'w' -> dy = 1;
+            case 'a' -> dx = -1;
+            case 's' -> dy = -1;
+            case 'd' -> dx = 1;
+            case 'l' -> lights = !lights;
+            default -> {
+                return false;
+            }
+        }
+        if (action != 'l') {
+            movePlayer(player.getxPos() + dx, player.getyPos() + dy);
+        }
+        playerActions.add(action);
+        return true;
+    }
+
+    /**
+     * Takes every action of a history and adds them to this one, the same as calling step() for each of them but
+     * a run at a time: a run of moves stops at the first wall, because every later move of the run would bump into
+     * the same wall, and a run of light switches only matters if it is odd.
+     * @param actions the actions to take
+     */
+    void replay(ActionHistory actions) {
+        for (int run = 0; run < actions.runCount(); run++) {
+            char action = actions.action(run);
+            int length = actions.runLength(run);
+            if (action == 'l') {
+                if (length % 2 == 1) {
+                    lights = !lights;
+                }
+                continue;
+            }
+            int dx = switch (action) {
+                case 'a' -> -1;
+                case 'd' -> 1;
+                default -> 0;
+            };
+            int dy = switch (action) {
+                case 's' -> -1;
+                case 'w' -> 1;
+                default -> 0;
+            };
+            for (int i = 0; i < length; i++) {
+                if (!movePlayer(player.getxPos() + dx, player.getyPos() + dy)) {
+                    break;
+                }
+            }
+        }
+        playerActions.addAll(actions);
+    }
+
+    /**
+     * Moves the player to newXPos, newYPos and picks up what is there, unless a wall is in the way. The light is
+     * only marked as stale.
+     * @return whether the player moved
+     */
+    private boolean movePlayer(int newXPos, int newYPos) {
+        if (!map.contains(newXPos, newYPos) || map.getId(newXPos, newYPos) == WorldGenerator.WALL_ID) {
+            return false;
+        }
+        int xPos = player.getxPos();
+        int yPos = player.getyPos();
+        player.setxPos(newXPos);
+        player.setyPos(newYPos);
+        swap(xPos, yPos, newXPos, newYPos);
+        lightStale = true;
+        return true;
+    }
+
+    private void swap(int x1, int y1, int x2, int y2) {
+        map.setId(x1, y1, onHold);
+        onHold = map.getId(x2, y2);
+        map.set(x2, y2, player.getAvatar());
+        if (onHold == BALL) {
+            collectedBalls.add(new Point(x2, y2));
+            ballsCollected++;
+            onHold = FLOOR;
+        }
+    }
+
+    /**
+     * Moves the light window to the player if the player moved since it was last moved. Only the tiles that enter
+     * or leave the light are touched.
+     */
+    private VisibilityMask updatedLight() {
+        if (lightStale) {
+            light.moveWindow(player.getxPos(), player.getyPos(), LIGHT_RADIUS);
+            lightStale = false;
+        }
+        return light;
+    }
+
+    /**
+     * Returns the state of the game as a snapshot. The snapshot shares the action history with the game, so it has
+     * to be written before the next step is taken.
+     * @return the snapshot
+     */
+    public SaveSnapshot snapshot() {
+        int[] ballX = new int[collectedBalls.size()];
+        int[] ballY = new int[collectedBalls.size()];
+        for (int i = 0; i < collectedBalls.size(); i++) {
+            ballX[i] = collectedBalls.get(i).x;
+            ballY[i] = collectedBalls.get(i).y;
+        }
+        return new SaveSnapshot(seed, width, height, player.getxPos(), player.getyPos(), onHold, lights,
+                ballsCollected, ballX, ballY, playerActions);
+    }
+
+    /**
+     * Copies the state into a frame for the render thread, without allocating anything.
+     */
+    void copyTo(GameFrame frame) {
+        frame.copyFrom(map, updatedLight(), lights, ballsCollected, winCondition);
+    }
+
+    /**
+     * Copies the ids of the tiles of the world into dest, laid out as TileGrid.copyTo() does.
+     */
+    void copyTilesTo(byte[] dest, int offset) {
+        map.copyTo(dest, offset);
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int playerX() {
+        return player.getxPos();
+    }
+
+    public int playerY() {
+        return player.getyPos();
+    }
+
+    /** @return whether the lights are off, so that only the tiles around the player are shown */
+    public boolean lights() {
+        return lights;
+    }
+
+    public int ballsCollected() {
+        return ballsCollected;
+    }
+
+    /** @return how many balls have to be collected to win */
+    public int winCondition() {
+        return winCondition;
+    }
+
+    public boolean isWon() {
+        return ballsCollected >= winCondition;
+    }
+
+    /** @return the number of actions taken since the game started, including those of a loaded game */
+    public long actionCount() {
+        return playerActions.size();
+    }
+
+    /**
+     * Returns the tile at x, y, with the player on it if they are there.
+     * @throws IndexOutOfBoundsException if x, y is outside of the world
+     */
+    public TETile tile(int x, int y) {
+        return map.get(x, y);
+    }
+
+    /**
+     * Returns the tile the player sees at x, y: the world inside the light, and dark outside of it while the
+     * lights are off.
+     */
+    public TETile shownTile(int x, int y, TETile dark) {
+        return (lights && !updatedLight().isVisible(x, y)) ? dark : map.get(x, y);
+    }
+
+    /** @return a copy of the world as an array of tiles, with the player in it */
+    public TETile[][] toArray() {
+        return map.toArray();
+    }
+}
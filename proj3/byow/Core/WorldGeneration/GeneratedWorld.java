@@ -0,0 +1,66 @@
+package byow.Core.WorldGeneration;
+
+import byow.TileEngine.TileGrid;
+
+/**
+ * What a game needs from a WorldGenerator once the world is built: the tiles, where the starting room is and how many
+ * rooms there are. A GeneratedWorld never changes, so one can be cached and shared between games and threads, and
+ * every game gets its own copy-on-write view of the tiles from getGrid().
+ */
+public final class GeneratedWorld {
+    private final TileGrid grid;
+    private final int startingRoomX;
+    private final int startingRoomY;
+    private final int numRooms;
+
+    GeneratedWorld(TileGrid grid, int startingRoomX, int startingRoomY, int numRooms) {
+        this.grid = grid;
+        this.startingRoomX = startingRoomX;
+        this.startingRoomY = startingRoomY;
+        this.numRooms = numRooms;
+    }
+
+    /**
+     * Takes the result of a WorldGenerator. The generator must not change its grid afterwards.
+     * @param world a generator that built its map
+     * @return the generated world
+     */
+    static GeneratedWorld of(WorldGenerator world) {
+        return new GeneratedWorld(world.getGrid(), world.getStartingRoomX(), world.getStartingRoomY(),
+                world.getNumRooms());
+    }
+
+    /**
+     * Returns a copy-on-write view of the tiles: the view can be changed like any grid, and only the first change
+     * copies the tiles.
+     * @return a new view of the tiles
+     */
+    public TileGrid getGrid() {
+        return grid.copyOnWrite();
+    }
+
+    public int getStartingRoomX() {
+        return startingRoomX;
+    }
+
+    public int getStartingRoomY() {
+        return startingRoomY;
+    }
+
+    public int getNumRooms() {
+        return numRooms;
+    }
+
+    public int width() {
+        return grid.width();
+    }
+
+    public int height() {
+        return grid.height();
+    }
+
+    /** @return how many bytes the tiles take up */
+    long bytes() {
+        return (long) grid.width() * grid.height();
+    }
+}
@@ -0,0 +1,280 @@
+package byow.Core.WorldGeneration;
+
+import java.util.Arrays;
+
+/**
+ * Decides which rooms get connected by hallways: a minimum spanning tree over the distances between room centers.
+ * Instead of a complete EdgeWeightedGraph with an Edge object per pair of rooms, the planner only looks at each
+ * room's NEIGHBORS nearest rooms, found through a grid of buckets over the room centers, and runs Kruskal's algorithm
+ * on primitive arrays. If those candidates leave the rooms disconnected it retries with twice as many neighbors.
+ * <p>
+ * With NEIGHBORS + 1 rooms or fewer every pair is a candidate, and candidates are ordered and tie-broken exactly like
+ * algs4's KruskalMST over the complete graph, so the default worlds get the same hallways as before.
+ */
+final class HallwayPlanner {
+    private static final int NEIGHBORS = 8;
+
+    private HallwayPlanner() {
+    }
+
+    /**
+     * Plans the hallways between the rooms with the given centers.
+     *
+     * @param centerX the x coordinate of the center of every room
+     * @param centerY the y coordinate of the center of every room
+     * @return the hallways as pairs of room indices {from, to, from, to, ...}, where from is always the room with
+     * the higher index, in the order Kruskal's algorithm picked them
+     */
+    static int[] plan(int[] centerX, int[] centerY) {
+        int numRooms = centerX.length;
+        if (numRooms < 2) {
+            return new int[0];
+        }
+        for (int neighbors = NEIGHBORS; ; neighbors *= 2) {
+            boolean complete = neighbors >= numRooms - 1;
+            long[] pairs = complete ? allPairs(numRooms) : nearestPairs(centerX, centerY, neighbors);
+            int[] hallways = spanningTree(centerX, centerY, pairs);
+            if (complete || hallways.length == 2 * (numRooms - 1)) {
+                return hallways;
+            }
+        }
+    }
+
+    /**
+     * Encodes the pair of rooms {low, high} so that sorting the codes orders pairs by their lower room and then by
+     * their higher room, descending. That is the order algs4's EdgeWeightedGraph.edges() lists them in when every
+     * room's edges are added right after the room.
+     */
+    private static long pairCode(int low, int high, int numRooms) {
+        return (long) low * numRooms + (numRooms - 1 - high);
+    }
+
+    private static int low(long pairCode, int numRooms) {
+        return (int) (pairCode / numRooms);
+    }
+
+    private static int high(long pairCode, int numRooms) {
+        return numRooms - 1 - (int) (pairCode % numRooms);
+    }
+
+    private static long[] allPairs(int numRooms) {
+        long[] pairs = new long[numRooms * (numRooms - 1) / 2];
+        int count = 0;
+        for (int low = 0; low < numRooms; low++) {
+            for (int high = numRooms - 1; high > low; high--) {
+                pairs[count] = pairCode(low, high, numRooms);
+                count++;
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Finds the given number of nearest rooms for every room and returns every pair found, without duplicates.
+     */
+    private static long[] nearestPairs(int[] centerX, int[] centerY, int neighbors) {
+        int numRooms = centerX.length;
+        CenterGrid grid = new CenterGrid(centerX, centerY);
+        long[] pairs = new long[numRooms * neighbors];
+        int[] nearest = new int[neighbors];
+        long[] nearestDistances = new long[neighbors];
+        int count = 0;
+        for (int room = 0; room < numRooms; room++) {
+            int found = grid.nearest(room, nearest, nearestDistances);
+            for (int i = 0; i < found; i++) {
+                pairs[count] = pairCode(Math.min(room, nearest[i]), Math.max(room, nearest[i]), numRooms);
+                count++;
+            }
+        }
+        Arrays.sort(pairs, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || pairs[unique - 1] != pairs[i]) {
+                pairs[unique] = pairs[i];
+                unique++;
+            }
+        }
+        return Arrays.copyOf(pairs, unique);
+    }
+
+    /**
+     * Runs Kruskal's algorithm over the candidate pairs. Pairs are sorted by squared distance, and pairs with the
+     * same distance keep their order in the pairs array. Every pair is packed into a single long as
+     * (squared distance, position in pairs), so the sort is a plain sort of primitives.
+     */
+    private static int[] spanningTree(int[] centerX, int[] centerY, long[] pairs) {
+        int numRooms = centerX.length;
+        int indexBits = Long.SIZE - Long.numberOfLeadingZeros(pairs.length);
+        long maxDistance = 1L << (Long.SIZE - 1 - indexBits);
+        long[] order = new long[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            long distance = squaredDistance(centerX, centerY, low(pairs[i], numRooms), high(pairs[i], numRooms));
+            if (distance >= maxDistance) {
+                throw new IllegalArgumentException("rooms are too far apart: " + distance);
+            }
+            order[i] = (distance << indexBits) | i;
+        }
+        Arrays.sort(order);
+
+        int[] parent = new int[numRooms];
+        int[] size = new int[numRooms];
+        for (int room = 0; room < numRooms; room++) {
+            parent[room] = room;
+            size[room] = 1;
+        }
+        int[] hallways = new int[2 * (numRooms - 1)];
+        int count = 0;
+        long indexMask = (1L << indexBits) - 1;
+        for (int i = 0; i < order.length && count < hallways.length; i++) {
+            long pair = pairs[(int) (order[i] & indexMask)];
+            int high = high(pair, numRooms);
+            int low = low(pair, numRooms);
+            int highRoot = find(parent, high);
+            int lowRoot = find(parent, low);
+            if (highRoot == lowRoot) {
+                continue;
+            }
+            if (size[highRoot] < size[lowRoot]) {
+                parent[highRoot] = lowRoot;
+                size[lowRoot] += size[highRoot];
+            } else {
+                parent[lowRoot] = highRoot;
+                size[highRoot] += size[lowRoot];
+            }
+            hallways[count] = high;
+            hallways[count + 1] = low;
+            count += 2;
+        }
+        return (count == hallways.length) ? hallways : Arrays.copyOf(hallways, count);
+    }
+
+    private static int find(int[] parent, int room) {
+        while (parent[room] != room) {
+            parent[room] = parent[parent[room]];
+            room = parent[room];
+        }
+        return room;
+    }
+
+    private static long squaredDistance(int[] centerX, int[] centerY, int first, int second) {
+        long xDistance = centerX[first] - centerX[second];
+        long yDistance = centerY[first] - centerY[second];
+        return xDistance * xDistance + yDistance * yDistance;
+    }
+
+    /**
+     * Buckets the room centers into square cells so that the nearest rooms of a room can be found by searching the
+     * cells around it in growing rings.
+     */
+    private static final class CenterGrid {
+        private final int[] centerX;
+        private final int[] centerY;
+        private final int minX;
+        private final int minY;
+        private final int cellSize;
+        private final int columns;
+        private final int rows;
+        private final int[] cellStart;
+        private final int[] cellRooms;
+
+        private CenterGrid(int[] centerX, int[] centerY) {
+            this.centerX = centerX;
+            this.centerY = centerY;
+            int numRooms = centerX.length;
+            int lowX = Integer.MAX_VALUE;
+            int lowY = Integer.MAX_VALUE;
+            int highX = Integer.MIN_VALUE;
+            int highY = Integer.MIN_VALUE;
+            for (int room = 0; room < numRooms; room++) {
+                lowX = Math.min(lowX, centerX[room]);
+                lowY = Math.min(lowY, centerY[room]);
+                highX = Math.max(highX, centerX[room]);
+                highY = Math.max(highY, centerY[room]);
+            }
+            minX = lowX;
+            minY = lowY;
+            double area = ((double) highX - lowX + 1) * ((double) highY - lowY + 1);
+            cellSize = Math.max(1, (int) Math.ceil(Math.sqrt(area / numRooms)));
+            columns = (highX - lowX) / cellSize + 1;
+            rows = (highY - lowY) / cellSize + 1;
+
+            cellStart = new int[columns * rows + 1];
+            for (int room = 0; room < numRooms; room++) {
+                cellStart[cellOf(room) + 1]++;
+            }
+            for (int cell = 0; cell < columns * rows; cell++) {
+                cellStart[cell + 1] += cellStart[cell];
+            }
+            int[] next = Arrays.copyOf(cellStart, cellStart.length - 1);
+            cellRooms = new int[numRooms];
+            for (int room = 0; room < numRooms; room++) {
+                int cell = cellOf(room);
+                cellRooms[next[cell]] = room;
+                next[cell]++;
+            }
+        }
+
+        private int cellOf(int room) {
+            return ((centerY[room] - minY) / cellSize) * columns + (centerX[room] - minX) / cellSize;
+        }
+
+        /**
+         * Fills nearest with up to nearest.length rooms closest to the given room, closest first.
+         *
+         * @return the number of rooms found
+         */
+        private int nearest(int room, int[] nearest, long[] distances) {
+            int column = (centerX[room] - minX) / cellSize;
+            int row = (centerY[room] - minY) / cellSize;
+            int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+            int found = 0;
+            for (int ring = 0; ring <= maxRing; ring++) {
+                for (int y = row - ring; y <= row + ring; y++) {
+                    if (y < 0 || y >= rows) {
+                        continue;
+                    }
+                    boolean edgeRow = y == row - ring || y == row + ring;
+                    int step = edgeRow ? 1 : 2 * ring;
+                    for (int x = column - ring; x <= column + ring; x += step) {
+                        if (x >= 0 && x < columns) {
+                            found = addCell(room, y * columns + x, nearest, distances, found);
+                        }
+                    }
+                }
+                long reach = (long) ring * cellSize;
+                if (found == nearest.length && distances[found - 1] <= reach * reach) {
+                    break;
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Offers every room in the cell to the sorted list of nearest rooms.
+         */
+        private int addCell(int room, int cell, int[] nearest, long[] distances, int found) {
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                int other = cellRooms[i];
+                if (other == room) {
+                    continue;
+                }
+                long distance = squaredDistance(centerX, centerY, room, other);
+                if (found == nearest.length && distance >= distances[found - 1]) {
+                    continue;
+                }
+                int position = (found == nearest.length) ? found - 1 : found;
+                while (position > 0 && distances[position - 1] > distance) {
+                    nearest[position] = nearest[position - 1];
+                    distances[position] = distances[position - 1];
+                    position--;
+                }
+                nearest[position] = other;
+                distances[position] = distance;
+                if (found < nearest.length) {
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+}
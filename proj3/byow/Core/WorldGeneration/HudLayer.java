@@ -0,0 +1,101 @@
+package byow.Core.WorldGeneration;
+
+import byow.TileEngine.TETile;
+import edu.princeton.cs.algs4.StdDraw;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The HUD line above the world: the hovered tile, whether the lights are on, how many balls were collected and the
+ * date and time. The HUD is its own layer on the screen, and StdDraw keeps whatever was drawn there until it is
+ * drawn over, so the HUD is only redrawn when one of the things it shows changed. Checking for a change compares the
+ * values the texts are made from, so the texts themselves are only built when they are about to be drawn, and the
+ * date is only formatted when the displayed second changes.
+ */
+final class HudLayer {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("EEE MMM dd yyyy HH:mm:ss");
+    private static final String OUTSIDE_WORLD = "grass tile";
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final double width;
+    private final double bottom;
+    private final double size;
+    private final ZoneId zone;
+    private boolean valid;
+    private TETile shownHover;
+    private boolean shownLights;
+    private int shownBalls;
+    private int shownWinCondition;
+    private long shownSecond = NONE;
+    private String hoverText;
+    private String lightText;
+    private String ballText;
+    private String dateText;
+
+    /**
+     * Creates the HUD for a screen of the given width whose top size rows are the HUD.
+     * @param width width of the screen in tiles
+     * @param height height of the screen in tiles, including the HUD
+     * @param size how many rows of tiles the HUD takes up
+     */
+    HudLayer(int width, int height, int size) {
+        this.width = width;
+        this.bottom = height - size;
+        this.size = size;
+        this.zone = ZoneId.systemDefault();
+    }
+
+    /**
+     * Makes the next call to draw() redraw the HUD, for after something else was drawn over it.
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Draws the HUD if anything it shows changed since it was last drawn.
+     * @param hovered the tile under the mouse, or null if the mouse is not over the world
+     * @param frame the frame the HUD is drawn for
+     * @return whether the HUD was drawn
+     */
+    boolean draw(TETile hovered, GameFrame frame) {
+        long second = System.currentTimeMillis() / 1000;
+        if (valid && hovered == shownHover && frame.lights() == shownLights
+                && frame.ballsCollected() == shownBalls && frame.winCondition() == shownWinCondition
+                && second == shownSecond) {
+            return false;
+        }
+        if (!valid || hovered != shownHover) {
+            hoverText = (hovered == null) ? OUTSIDE_WORLD : hovered.description() + " tile";
+        }
+        if (!valid || frame.lights() != shownLights) {
+            lightText = "Press L to turn lights " + ((frame.lights()) ? "off" : "on");
+        }
+        if (!valid || frame.ballsCollected() != shownBalls || frame.winCondition() != shownWinCondition) {
+            ballText = "Dragon Balls Collected: " + frame.ballsCollected() + " and You need "
+                    + frame.winCondition();
+        }
+        if (second != shownSecond) {
+            dateText = "Date and Time: " + DATE_FORMAT.format(Instant.ofEpochSecond(second).atZone(zone));
+        }
+        valid = true;
+        shownHover = hovered;
+        shownLights = frame.lights();
+        shownBalls = frame.ballsCollected();
+        shownWinCondition = frame.winCondition();
+        shownSecond = second;
+
+        double middle = bottom + size / 2;
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.filledRectangle(width / 2, middle, width / 2, size / 2);
+        StdDraw.setPenColor(StdDraw.WHITE);
+        StdDraw.line(0, bottom, width, bottom);
+        StdDraw.textLeft(0, middle, hoverText);
+        StdDraw.textLeft(width / 4, middle, lightText);
+        StdDraw.textRight(3 * width / 4, middle, ballText);
+        StdDraw.textRight(width, middle, dateText);
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package byow.Core.WorldGeneration;
+
+/**
+ * Keeps track of which tiles of the map are already taken by rooms, using one bitset per row. Checking whether a
+ * rectangle is free only looks at the one or two words that cover it in each of its rows, so the cost does not grow
+ * with the number of rooms that have been placed or with how crowded the map gets.
+ */
+class OccupancyIndex {
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;
+
+    /**
+     * Creates an index for a map of the given size with every tile free.
+     *
+     * @param width  the width of the map
+     * @param height the height of the map
+     */
+    OccupancyIndex(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + Long.SIZE - 1) / Long.SIZE;
+        this.bits = new long[Math.multiplyExact(wordsPerRow, height)];
+    }
+
+    /**
+     * Checks whether any tile in the rectangle is taken. All bounds are inclusive.
+     *
+     * @param left   the x coordinate of the left side of the rectangle
+     * @param bottom the y coordinate of the bottom side of the rectangle
+     * @param right  the x coordinate of the right side of the rectangle
+     * @param top    the y coordinate of the top side of the rectangle
+     * @return true if at least one tile in the rectangle is taken, false otherwise
+     */
+    boolean overlaps(int left, int bottom, int right, int top) {
+        checkBounds(left, bottom, right, top);
+        int firstWord = left / Long.SIZE;
+        int lastWord = right / Long.SIZE;
+        long firstMask = -1L << (left % Long.SIZE);
+        long lastMask = -1L >>> (Long.SIZE - 1 - right % Long.SIZE);
+        for (int y = bottom; y <= top; y++) {
+            int row = y * wordsPerRow;
+            if (firstWord == lastWord) {
+                if ((bits[row + firstWord] & firstMask & lastMask) != 0) {
+                    return true;
+                }
+                continue;
+            }
+            if ((bits[row + firstWord] & firstMask) != 0 || (bits[row + lastWord] & lastMask) != 0) {
+                return true;
+            }
+            for (int word = firstWord + 1; word < lastWord; word++) {
+                if (bits[row + word] != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks every tile in the rectangle as taken. All bounds are inclusive.
+     *
+     * @param left   the x coordinate of the left side of the rectangle
+     * @param bottom the y coordinate of the bottom side of the rectangle
+     * @param right  the x coordinate of the right side of the rectangle
+     * @param top    the y coordinate of the top side of the rectangle
+     */
+    void occupy(int left, int bottom, int right, int top) {
+        checkBounds(left, bottom, right, top);
+        int firstWord = left / Long.SIZE;
+        int lastWord = right / Long.SIZE;
+        long firstMask = -1L << (left % Long.SIZE);
+        long lastMask = -1L >>> (Long.SIZE - 1 - right % Long.SIZE);
+        for (int y = bottom; y <= top; y++) {
+            int row = y * wordsPerRow;
+            if (firstWord == lastWord) {
+                bits[row + firstWord] |= firstMask & lastMask;
+                continue;
+            }
+            bits[row + firstWord] |= firstMask;
+            bits[row + lastWord] |= lastMask;
+            for (int word = firstWord + 1; word < lastWord; word++) {
+                bits[row + word] = -1L;
+            }
+        }
+    }
+
+    private void checkBounds(int left, int bottom, int right, int top) {
+        if (left < 0 || bottom < 0 || right >= width || top >= height || left > right || bottom > top) {
+            throw new IllegalArgumentException("invalid rectangle: [" + left + ", " + bottom + "] to ["
+                    + right + ", " + top + "]");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package byow.Core.WorldGeneration;
+
+/**
+ * The ways WorldGenerator can choose where its rooms go.
+ */
+public enum PlacementMode {
+    /**
+     * Keeps drawing random rooms anywhere on the map until enough of them fit. This is the original behaviour and
+     * the default, but it has no cap on attempts, so it can take very long or never finish on crowded maps.
+     */
+    SAMPLED,
+
+    /**
+     * Keeps track of the free rectangles left on the map and only draws rooms inside space that can hold them.
+     * Every room takes a bounded amount of work, and generation stops early with fewer rooms once no free space
+     * is left.
+     */
+    FREE_RECTANGLES
+}
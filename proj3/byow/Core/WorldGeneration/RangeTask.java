@@ -0,0 +1,43 @@
+package byow.Core.WorldGeneration;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits a range [from, to) in half until it is at most grain long, and then runs an action on it on a single
+ * thread. The length of the range is treated as unsigned, so any range with to >= from can be split, even one
+ * that spans more than Long.MAX_VALUE.
+ */
+final class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final long from;
+    private final long to;
+    private final long grain;
+    private final Action action;
+
+    /**
+     * Does something to a range.
+     */
+    @FunctionalInterface
+    interface Action {
+        void run(long from, long to);
+    }
+
+    RangeTask(long from, long to, long grain, Action action) {
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+        long length = to - from;
+        if (Long.compareUnsigned(length, grain) <= 0) {
+            action.run(from, to);
+            return;
+        }
+        long middle = from + (length >>> 1);
+        invokeAll(new RangeTask(from, middle, grain, action), new RangeTask(middle, to, grain, action));
+    }
+}
@@ -1,15 +1,15 @@
 package byow.Core.WorldGeneration;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 import static byow.Core.RandomUtils.uniform;
 
 
 public class Room {
-    private static final int MAX_WIDTH = 20;
-    private static final int MAX_HEIGHT = 20;
-    private static final int MIN_WIDTH = 4;
-    private static final int MIN_HEIGHT = 4;
+    static final int MAX_WIDTH = 20;
+    static final int MAX_HEIGHT = 20;
+    static final int MIN_WIDTH = 4;
+    static final int MIN_HEIGHT = 4;
 
     private final int left;
     private final int bottom;
@@ -36,12 +36,13 @@ public class Room {
     /**
      * Creates and returns a new instance of Room that has pseudo-random parameters.
      *
-     * @param generator an instance of Random that will be used to generate the parameters
+     * @param generator a RandomGenerator, such as a java.util.Random or a room stream from RandomUtils, that will
+     *                  be used to generate the parameters
      * @param mapWidth  the width of the map, used to give us a range of valid x values
      * @param mapHeight the height of the map, used to give us a range of valid y values
      * @return returns the instance of Room created with random parameters
      */
-    public static Room createNewRoom(Random generator, int mapWidth, int mapHeight) {
+    public static Room createNewRoom(RandomGenerator generator, int mapWidth, int mapHeight) {
         int width = uniform(generator, MIN_WIDTH, MAX_WIDTH);
         int height = uniform(generator, MIN_HEIGHT, MAX_HEIGHT);
         int xCoordinate = uniform(generator, 0, mapWidth - width);
@@ -49,6 +50,20 @@ public class Room {
         return new Room(xCoordinate, yCoordinate, width, height);
     }
 
+    /**
+     * Creates and returns a new instance of Room at a position and size that were already chosen, for example by
+     * FreeRectangles.
+     *
+     * @param x the x position of the bottom left corner of the room
+     * @param y the y position of the bottom left corner of the room
+     * @param w the width of the room
+     * @param h the height of the room
+     * @return returns the instance of Room with the given parameters
+     */
+    static Room createRoomAt(int x, int y, int w, int h) {
+        return new Room(x, y, w, h);
+    }
+
     /**
      * Getter for the left attribute of a room.
      *
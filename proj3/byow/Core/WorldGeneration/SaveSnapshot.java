@@ -0,0 +1,205 @@
+package byow.Core.WorldGeneration;
+
+import byow.TileEngine.Tileset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The state of a game in binary form, for saving and loading. Instead of every action since the game started, a
+ * snapshot only stores what sets the game apart from a freshly generated world: the seed, where the player is and
+ * what they are standing on, whether the lights are off, and which balls were collected. Loading regenerates the
+ * world from the seed and applies that difference, so it takes as long after a long game as after a short one.
+ * The actions of the game are kept too, in their compact ActionHistory encoding, but loading doesn't replay them.
+ * <p>
+ * The file starts with a magic number and a format version, followed by the fields in the order they are declared
+ * here. Every number is written big-endian, as DataOutputStream does. What the player stands on is saved as its
+ * index in GROUND, so that a save doesn't depend on the order the tiles are registered in the TileGrid palette.
+ * Version 2 files saved the palette id instead, and version 1 files have no history either.
+ * <p>
+ * Outside of this package a snapshot is only something GameState.snapshot() returns and GameState.restore() takes.
+ */
+public final class SaveSnapshot {
+    private static final int MAGIC = 0x42594F57; // "BYOW"
+    private static final byte VERSION = 3;
+    private static final byte VERSION_WITH_PALETTE_IDS = 2;
+    private static final byte VERSION_WITHOUT_HISTORY = 1;
+    /** The tiles the player can stand on. */
+    private static final byte[] GROUND = {Tileset.FLOOR_ID, WorldGenerator.NOTHING_ID};
+    /** The palette ids GROUND had when version 1 and 2 files were written. */
+    private static final byte[] OLD_GROUND_IDS = {3, 0};
+
+    final long seed;
+    final int width;
+    final int height;
+    final int playerX;
+    final int playerY;
+    final byte onHold;
+    final boolean lights;
+    final int ballsCollected;
+    final int[] ballX;
+    final int[] ballY;
+    final ActionHistory history;
+
+    SaveSnapshot(long seed, int width, int height, int playerX, int playerY, byte onHold, boolean lights,
+                 int ballsCollected, int[] ballX, int[] ballY, ActionHistory history) {
+        if (ballX.length != ballY.length) {
+            throw new IllegalArgumentException("ball coordinates don't match: " + ballX.length + " x positions and "
+                    + ballY.length + " y positions");
+        }
+        if (ballsCollected != ballX.length) {
+            throw new IllegalArgumentException(ballsCollected + " balls collected but " + ballX.length
+                    + " balls removed");
+        }
+        groundCode(onHold);
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.playerX = playerX;
+        this.playerY = playerY;
+        this.onHold = onHold;
+        this.lights = lights;
+        this.ballsCollected = ballsCollected;
+        this.ballX = ballX;
+        this.ballY = ballY;
+        this.history = history;
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to file and then moves it over file, so that a crash while
+     * saving leaves the previous save in place.
+     * @param file where to save the snapshot
+     * @throws IOException if the file can't be written
+     */
+    void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            writeTo(out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the snapshot in the same format as write(), for files that hold a snapshot among other things.
+     * @param out where to write the snapshot
+     * @throws IOException if out can't be written to
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(playerX);
+        out.writeInt(playerY);
+        out.writeByte(groundCode(onHold));
+        out.writeBoolean(lights);
+        out.writeInt(ballsCollected);
+        out.writeInt(ballX.length);
+        for (int i = 0; i < ballX.length; i++) {
+            out.writeInt(ballX[i]);
+            out.writeInt(ballY[i]);
+        }
+        history.writeTo(out);
+    }
+
+    /**
+     * Reads a snapshot that was written with write().
+     * @param file where the snapshot was saved
+     * @return the snapshot, or null if there is no such file
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the file is not a snapshot or is cut off
+     */
+    static SaveSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return readFrom(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (EOFException e) {
+            throw new IllegalArgumentException(file + " is cut off", e);
+        }
+    }
+
+    /**
+     * Reads a snapshot that was written with writeTo().
+     * @param in where to read the snapshot from
+     * @return the snapshot
+     * @throws IOException if in can't be read, including EOFException if it ends before the snapshot does
+     * @throws IllegalArgumentException if in doesn't hold a snapshot
+     */
+    static SaveSnapshot readFrom(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("not a saved game");
+        }
+        byte version = in.readByte();
+        if (version != VERSION && version != VERSION_WITH_PALETTE_IDS && version != VERSION_WITHOUT_HISTORY) {
+            throw new IllegalArgumentException("unsupported save version " + version);
+        }
+        long seed = in.readLong();
+        int width = in.readInt();
+        int height = in.readInt();
+        int playerX = in.readInt();
+        int playerY = in.readInt();
+        byte onHold = ground(in.readByte(), (version == VERSION) ? null : OLD_GROUND_IDS);
+        boolean lights = in.readBoolean();
+        int ballsCollected = in.readInt();
+        int balls = in.readInt();
+        if (balls < 0 || balls > (long) width * height) {
+            throw new IllegalArgumentException("invalid number of balls: " + balls);
+        }
+        int[] ballX = new int[balls];
+        int[] ballY = new int[balls];
+        for (int i = 0; i < balls; i++) {
+            ballX[i] = in.readInt();
+            ballY[i] = in.readInt();
+        }
+        ActionHistory history = (version != VERSION_WITHOUT_HISTORY) ? ActionHistory.readFrom(in)
+                : new ActionHistory();
+        return new SaveSnapshot(seed, width, height, playerX, playerY, onHold, lights, ballsCollected,
+                ballX, ballY, history);
+    }
+
+    /**
+     * Returns the index in GROUND of the tile the player stands on.
+     * @throws IllegalArgumentException if the player can't stand on the tile
+     */
+    private static int groundCode(byte id) {
+        for (int i = 0; i < GROUND.length; i++) {
+            if (GROUND[i] == id) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("the player can't stand on tile " + id);
+    }
+
+    /**
+     * Returns the palette id of the tile the player stands on, as it was saved.
+     * @param saved the index in GROUND, or the old palette id if oldIds isn't null
+     * @param oldIds the palette ids GROUND had when the file was written, or null if it saved indexes
+     * @throws IllegalArgumentException if saved isn't a tile the player can stand on
+     */
+    private static byte ground(byte saved, byte[] oldIds) {
+        if (oldIds == null) {
+            if (saved < 0 || saved >= GROUND.length) {
+                throw new IllegalArgumentException("the player can't stand on tile " + saved);
+            }
+            return GROUND[saved];
+        }
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] == saved) {
+                return GROUND[i];
+            }
+        }
+        throw new IllegalArgumentException("the player can't stand on tile " + saved);
+    }
+}
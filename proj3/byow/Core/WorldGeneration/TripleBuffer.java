@@ -0,0 +1,63 @@
+package byow.Core.WorldGeneration;
+
+import java.util.function.Supplier;
+
+/**
+ * Hands values from a writer thread to a reader thread without either one waiting for the other or anything being
+ * allocated. There are three values: the writer fills in its back value and publishes it, which swaps it with the
+ * middle one, and the reader takes the latest published value, which swaps the middle one with its front value.
+ * The writer never touches a value the reader holds and the other way around, so a value the reader got stays as
+ * it was until the reader asks for the next one.
+ *
+ * @param <T> the type of the values, usually a mutable frame that is copied into
+ */
+final class TripleBuffer<T> {
+    private T back;
+    private T middle;
+    private T front;
+    private boolean fresh;
+
+    /**
+     * Creates the three values with the given factory.
+     * @param factory creates a value
+     */
+    TripleBuffer(Supplier<T> factory) {
+        this.back = factory.get();
+        this.middle = factory.get();
+        this.front = factory.get();
+    }
+
+    /**
+     * Returns the value the writer fills in. Only the writer thread may call this.
+     * @return the back value
+     */
+    T back() {
+        return back;
+    }
+
+    /**
+     * Publishes the back value, so that the reader gets it the next time it asks. Only the writer thread may call
+     * this.
+     */
+    synchronized void publish() {
+        T published = back;
+        back = middle;
+        middle = published;
+        fresh = true;
+    }
+
+    /**
+     * Returns the latest published value, or the value returned last time if nothing was published since. Only the
+     * reader thread may call this.
+     * @return the front value
+     */
+    synchronized T latest() {
+        if (fresh) {
+            T latest = middle;
+            middle = front;
+            front = latest;
+            fresh = false;
+        }
+        return front;
+    }
+}
@@ -0,0 +1,63 @@
+package byow.Core.WorldGeneration;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates worlds for a whole range of seeds at once by spreading the seeds across a fork-join pool. Every
+ * WorldGenerator keeps its own Random, so each seed produces exactly the same tiles it would produce on its own.
+ * Nothing here touches the TERenderer or StdDraw, so it can be used headless.
+ */
+public final class WorldBatch {
+    private static final int SEEDS_PER_TASK = 8;
+
+    private WorldBatch() {
+    }
+
+    /**
+     * Receives every world that a batch generates. Worlds are handed over from the pool's threads as soon as they
+     * are built and in no particular order, so implementations must be thread safe.
+     */
+    @FunctionalInterface
+    public interface WorldConsumer {
+        void accept(long seed, WorldGenerator world);
+    }
+
+    /**
+     * Generates a world for every seed in [fromSeed, toSeed) on the common fork-join pool and hands each one to
+     * the consumer. Returns once every world has been consumed.
+     *
+     * @param fromSeed the first seed to generate (inclusive)
+     * @param toSeed   the last seed to generate (exclusive)
+     * @param width    the width of every world
+     * @param height   the height of every world
+     * @param consumer receives every generated world
+     */
+    public static void generate(long fromSeed, long toSeed, int width, int height, WorldConsumer consumer) {
+        generate(ForkJoinPool.commonPool(), fromSeed, toSeed, width, height, consumer);
+    }
+
+    /**
+     * Same as generate(fromSeed, toSeed, width, height, consumer), but runs on the given pool.
+     *
+     * @param pool     the pool whose threads generate the worlds
+     * @param fromSeed the first seed to generate (inclusive)
+     * @param toSeed   the last seed to generate (exclusive)
+     * @param width    the width of every world
+     * @param height   the height of every world
+     * @param consumer receives every generated world
+     */
+    public static void generate(ForkJoinPool pool, long fromSeed, long toSeed, int width, int height,
+                                WorldConsumer consumer) {
+        if (toSeed < fromSeed) {
+            throw new IllegalArgumentException("invalid seed range: [" + fromSeed + ", " + toSeed + ")");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+        pool.invoke(new RangeTask(fromSeed, toSeed, SEEDS_PER_TASK, (from, to) -> {
+            for (long seed = from; seed < to; seed++) {
+                consumer.accept(seed, new WorldGenerator(seed, width, height));
+            }
+        }));
+    }
+}
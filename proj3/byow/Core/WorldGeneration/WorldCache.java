@@ -0,0 +1,180 @@
+package byow.Core.WorldGeneration;
+
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded cache of generated worlds, so that a seed that is played again costs a copy of its tiles instead of a
+ * new WorldGenerator. Worlds are keyed by seed, size and WorldGenerator.VERSION, and the least recently used worlds
+ * are evicted once the tiles of all the cached worlds take up more than maxBytes.
+ * <p>
+ * The cached worlds never change: every game gets its own copy-on-write view of the tiles, so a game moving the
+ * player around doesn't touch the cached world. The cache is thread safe. A world that is missing is generated
+ * outside of the lock, so two threads asking for the same missing world may both generate it, and the first one to
+ * finish is kept.
+ * <p>
+ * A cache can sit in front of a WorldDiskCache, which it then asks for the worlds it doesn't have instead of
+ * generating them. The shared cache does so if the system property byow.worldCacheDir names a directory, holding at
+ * most byow.worldCacheBytes bytes of worlds there, DEFAULT_DISK_BYTES if that isn't set.
+ */
+public final class WorldCache {
+    /** The size of the shared cache, enough for a few thousand worlds of the default size. */
+    public static final long DEFAULT_MAX_BYTES = 16L << 20;
+    /** The size of the shared cache's directory, if it has one and byow.worldCacheBytes isn't set. */
+    public static final long DEFAULT_DISK_BYTES = 256L << 20;
+    private static final WorldCache SHARED = new WorldCache(DEFAULT_MAX_BYTES, sharedDiskCache());
+
+    private final long maxBytes;
+    private final WorldDiskCache disk;
+    private final LinkedHashMap<Key, GeneratedWorld> worlds;
+    private long bytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates an empty cache.
+     * @param maxBytes the most tile memory the cache may hold; a world larger than this is never cached
+     */
+    public WorldCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Creates an empty cache in front of a disk cache.
+     * @param maxBytes the most tile memory the cache may hold; a world larger than this is never cached
+     * @param disk where to get the worlds that aren't cached, or null to generate them
+     */
+    public WorldCache(long maxBytes, WorldDiskCache disk) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("negative cache size: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.disk = disk;
+        this.worlds = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static WorldDiskCache sharedDiskCache() {
+        String directory = System.getProperty("byow.worldCacheDir");
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        long diskBytes = Long.getLong("byow.worldCacheBytes", DEFAULT_DISK_BYTES);
+        return new WorldDiskCache(Paths.get(directory), diskBytes);
+    }
+
+    /**
+     * Returns the cache that games use.
+     * @return the shared cache
+     */
+    public static WorldCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the world for a seed and size. A world that isn't cached is asked from the disk cache if there is one,
+     * and generated with new WorldGenerator(seed, width, height) otherwise.
+     * @param seed the seed of the world
+     * @param width width of the world in tiles
+     * @param height height of the world in tiles
+     * @return the world, whose getGrid() hands out copy-on-write views of the tiles
+     */
+    public GeneratedWorld get(long seed, int width, int height) {
+        Key key = new Key(seed, width, height, WorldGenerator.VERSION);
+        synchronized (this) {
+            GeneratedWorld world = worlds.get(key);
+            if (world != null) {
+                hits++;
+                return world;
+            }
+            misses++;
+        }
+        GeneratedWorld world = (disk != null) ? disk.get(seed, width, height)
+                : GeneratedWorld.of(new WorldGenerator(seed, width, height));
+        synchronized (this) {
+            GeneratedWorld raced = worlds.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            if (world.bytes() <= maxBytes) {
+                worlds.put(key, world);
+                bytes += world.bytes();
+                evict();
+            }
+        }
+        return world;
+    }
+
+    /**
+     * Evicts the least recently used worlds until the cache fits in maxBytes.
+     */
+    private void evict() {
+        Iterator<Map.Entry<Key, GeneratedWorld>> eldest = worlds.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Evicts every world.
+     */
+    public synchronized void clear() {
+        worlds.clear();
+        bytes = 0;
+    }
+
+    /** @return the number of cached worlds */
+    public synchronized int size() {
+        return worlds.size();
+    }
+
+    /** @return how many bytes the tiles of the cached worlds take up */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /** @return how many calls to get() found their world in the cache */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /** @return how many calls to get() had to generate their world */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * What a world is cached under.
+     */
+    private static final class Key {
+        private final long seed;
+        private final int width;
+        private final int height;
+        private final int version;
+
+        Key(long seed, int width, int height, int version) {
+            this.seed = seed;
+            this.width = width;
+            this.height = height;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return seed == other.seed && width == other.width && height == other.height
+                    && version == other.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(seed, width, height, version);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package byow.Core.WorldGeneration;
+
+import byow.TileEngine.TileGrid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A directory of generated worlds, so that a world survives the program ending and a seed that was played before
+ * doesn't have to be generated again on the next start. Every world is one file named after the generator version,
+ * the seed and the size. The file is a fixed header followed by the tile ids exactly as a TileGrid stores them, so
+ * reading a world maps the file with a MappedByteBuffer and wraps the ids in a TileGrid without parsing or copying
+ * them.
+ * <p>
+ * The header is a magic number, the file format version, WorldGenerator.VERSION, the seed, the width and the height,
+ * the starting room and the number of rooms, and the CRC32 of the ids, all big-endian. A file that is damaged, cut
+ * off or doesn't match what was asked for is deleted and the world generated again. Files of another generator
+ * version are deleted when the cache is opened, since the worlds they hold are no longer the ones the seeds make.
+ * <p>
+ * Once the files take up more than maxBytes, the ones that were used least recently are deleted; using a file
+ * updates its modification time. Files are written to a temporary file and moved into place, so a reader never sees
+ * half of a file.
+ * <p>
+ * Several threads or programs may share a directory. Any of them may delete a file while another is using or
+ * trimming it, so a file that is gone by the time it is touched, measured or deleted is taken as already trimmed, and
+ * a mapped file stays readable after it was deleted. Opening a cache only deletes temporary files that are old
+ * enough to have been left behind, so it doesn't break the writes of a program that is already using the directory.
+ */
+public final class WorldDiskCache {
+    private static final int MAGIC = 0x42595743; // "BYWC"
+    private static final byte FORMAT = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + 1 + Integer.BYTES + Long.BYTES + 6 * Integer.BYTES;
+    private static final String PREFIX = "world-v";
+    private static final String SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** How old a temporary file has to be before it is taken as left behind by a write that never finished. */
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * Opens the cache in directory, creating the directory if needed, and deletes every world that was written by
+     * another version of the generator, along with the temporary files of writes that never finished. A temporary
+     * file counts as left behind once it is STALE_TEMP_MILLIS old, so a write another program is in the middle of
+     * isn't touched.
+     * @param directory where the worlds are kept
+     * @param maxBytes the most the files in the directory may take up
+     * @throws UncheckedIOException if the directory can't be created or read
+     */
+    public WorldDiskCache(Path directory, long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("negative cache size: " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            String current = PREFIX + WorldGenerator.VERSION + "-";
+            for (Path file : worldFiles()) {
+                if (!file.getFileName().toString().startsWith(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            long stale = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + TEMP_SUFFIX)) {
+                for (Path file : stream) {
+                    try {
+                        if (Files.getLastModifiedTime(file).toMillis() < stale) {
+                            Files.deleteIfExists(file);
+                        }
+                    } catch (NoSuchFileException e) {
+                        // moved into place or deleted in the meantime
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the world for a seed and size, reading it from its file if there is a good one, and otherwise
+     * generating it with new WorldGenerator(seed, width, height) and writing it to a file.
+     * @param seed the seed of the world
+     * @param width width of the world in tiles
+     * @param height height of the world in tiles
+     * @return the world; if it was read from a file, its tiles are read from the mapped file
+     * @throws UncheckedIOException if the cache can't be read or written
+     */
+    public GeneratedWorld get(long seed, int width, int height) {
+        Path file = fileOf(seed, width, height);
+        try {
+            GeneratedWorld world = read(file, seed, width, height);
+            if (world != null) {
+                touch(file);
+                return world;
+            }
+            world = GeneratedWorld.of(new WorldGenerator(seed, width, height));
+            write(file, seed, world);
+            trim();
+            return world;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path fileOf(long seed, int width, int height) {
+        return directory.resolve(PREFIX + WorldGenerator.VERSION + "-" + seed + "-" + width + "x" + height + SUFFIX);
+    }
+
+    /**
+     * Maps a world file and checks its header and checksum.
+     * @return the world, or null if there is no such file or it was bad, in which case it was deleted
+     */
+    private static GeneratedWorld read(Path file, long seed, int width, int height) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size != HEADER_BYTES + (long) width * height) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (mapped.getInt() != MAGIC || mapped.get() != FORMAT || mapped.getInt() != WorldGenerator.VERSION
+                || mapped.getLong() != seed || mapped.getInt() != width || mapped.getInt() != height) {
+            Files.deleteIfExists(file);
+            return null;
+        }
+        int startingRoomX = mapped.getInt();
+        int startingRoomY = mapped.getInt();
+        int numRooms = mapped.getInt();
+        int checksum = mapped.getInt();
+        ByteBuffer ids = mapped.slice();
+        CRC32 crc = new CRC32();
+        crc.update(ids.duplicate());
+        if ((int) crc.getValue() != checksum || startingRoomX < 0 || startingRoomX >= width
+                || startingRoomY < 0 || startingRoomY >= height) {
+            Files.deleteIfExists(file);
+            return null;
+        }
+        return new GeneratedWorld(TileGrid.wrap(ids, width, height), startingRoomX, startingRoomY, numRooms);
+    }
+
+    private static void write(Path file, long seed, GeneratedWorld world) throws IOException {
+        byte[] ids = new byte[(int) world.bytes()];
+        world.getGrid().copyTo(ids, 0);
+        CRC32 crc = new CRC32();
+        crc.update(ids);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).put(FORMAT).putInt(WorldGenerator.VERSION).putLong(seed).putInt(world.width())
+                .putInt(world.height()).putInt(world.getStartingRoomX()).putInt(world.getStartingRoomY())
+                .putInt(world.getNumRooms()).putInt((int) crc.getValue()).flip();
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer[] contents = {header, ByteBuffer.wrap(ids)};
+            while (contents[1].hasRemaining()) {
+                channel.write(contents);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // someone else took the temporary file for left behind; the world is only not cached this time
+        }
+    }
+
+    /**
+     * Marks a file as just used, unless someone else deleted it in the meantime.
+     */
+    private static void touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // trimmed by someone else; the world was already mapped
+        }
+    }
+
+    /**
+     * Deletes the least recently used worlds until the files fit in maxBytes. Files that someone else deleted
+     * while they were being listed are left out.
+     */
+    private void trim() throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        List<FileTime> times = new ArrayList<>();
+        long total = 0;
+        for (Path file : worldFiles()) {
+            long size;
+            FileTime time;
+            try {
+                size = Files.size(file);
+                time = Files.getLastModifiedTime(file);
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            files.add(file);
+            sizes.add(size);
+            times.add(time);
+            total += size;
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(times::get));
+        for (int i : order) {
+            if (total <= maxBytes) {
+                break;
+            }
+            Files.deleteIfExists(files.get(i));
+            total -= sizes.get(i);
+        }
+    }
+
+    private List<Path> worldFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /** @return how many bytes the files in the cache take up */
+    public long bytes() {
+        try {
+            long total = 0;
+            for (Path file : worldFiles()) {
+                try {
+                    total += Files.size(file);
+                } catch (NoSuchFileException e) {
+                    // deleted since it was listed
+                }
+            }
+            return total;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,13 +2,10 @@ package byow.Core.WorldGeneration;
 
 import byow.Core.RandomUtils;
 import byow.TileEngine.TETile;
+import byow.TileEngine.TileGrid;
 import byow.TileEngine.Tileset;
-import edu.princeton.cs.algs4.Edge;
-import edu.princeton.cs.algs4.EdgeWeightedGraph;
-import edu.princeton.cs.algs4.KruskalMST;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Random;
 
 public class WorldGenerator {
@@ -16,16 +13,26 @@ public class WorldGenerator {
     public static final TETile FLOOR = Tileset.FLOOR;
     public static final TETile WALL = Tileset.WALL;
     public static final TETile BALL = Tileset.BALL;
+    public static final byte NOTHING_ID = Tileset.WATER_ID;
+    public static final byte FLOOR_ID = Tileset.FLOOR_ID;
+    public static final byte WALL_ID = Tileset.WALL_ID;
+    public static final byte BALL_ID = Tileset.BALL_ID;
+    /**
+     * The version of the generation algorithm. It has to go up whenever a change makes the worlds for a seed come out
+     * differently, so that worlds cached by an older version are generated again instead of being used.
+     */
+    public static final int VERSION = 1;
 
     private static final int MAX_NUM_ROOMS = 10;
     private static final int MIN_NUM_ROOMS = 5;
     private final int mapWidth;
     private final int mapHeight;
     private final int numRooms;
+    private final PlacementMode placement;
 
     private final Random generator;
-    private final TETile[][] map;
-    private final EdgeWeightedGraph graph;
+    private final TileGrid map;
+    private final OccupancyIndex occupancy;
     private final ArrayList<Room> rooms;
 
     /**
@@ -37,82 +44,185 @@ public class WorldGenerator {
      * @param height sets the height of the screen
      */
     public WorldGenerator(long seed, int width, int height) {
+        this(seed, width, height, PlacementMode.SAMPLED);
+    }
+
+    /**
+     * Same as WorldGenerator(seed, width, height), but lets the caller choose how rooms are placed.
+     *
+     * @param seed      used for the pseudo-random number generator
+     * @param width     sets the width of the screen
+     * @param height    sets the height of the screen
+     * @param placement how the rooms should be placed
+     */
+    public WorldGenerator(long seed, int width, int height, PlacementMode placement) {
+        this(seed, width, height, 0, placement, true);
+    }
+
+    /**
+     * Creates a WorldGenerator that tries to place the given number of rooms instead of a random number between
+     * MIN_NUM_ROOMS and MAX_NUM_ROOMS. Dense maps should use PlacementMode.FREE_RECTANGLES, which stops early
+     * when the map is full.
+     *
+     * @param seed      used for the pseudo-random number generator
+     * @param width     sets the width of the screen
+     * @param height    sets the height of the screen
+     * @param numRooms  the number of rooms to place, must be positive
+     * @param placement how the rooms should be placed
+     */
+    public WorldGenerator(long seed, int width, int height, int numRooms, PlacementMode placement) {
+        this(seed, width, height, requirePositive(numRooms), placement, true);
+    }
+
+    /**
+     * Creates a WorldGenerator that only runs createMap() when build is true. Leaving the map unbuilt lets the
+     * benchmarks drive each generation phase on its own.
+     *
+     * @param seed   used for the pseudo-random number generator
+     * @param width  sets the width of the screen
+     * @param height sets the height of the screen
+     * @param build  whether the map should be generated right away
+     */
+    WorldGenerator(long seed, int width, int height, boolean build) {
+        this(seed, width, height, 0, PlacementMode.SAMPLED, build);
+    }
+
+    /**
+     * The constructor every other constructor ends up in. A numRooms of 0 means the number of rooms is drawn from
+     * the generator, which is what keeps the default worlds the same for a given seed. ChunkedWorld uses it with
+     * build set to false so that it can dig doorways before the balls are added.
+     */
+    WorldGenerator(long seed, int width, int height, int numRooms, PlacementMode placement, boolean build) {
+        if (placement == null) {
+            throw new IllegalArgumentException("placement is null");
+        }
         mapWidth = width;
         mapHeight = height;
         generator = new Random(seed);
-        map = new TETile[mapWidth][mapHeight];
-        numRooms = RandomUtils.uniform(generator, MIN_NUM_ROOMS, MAX_NUM_ROOMS);
+        map = new TileGrid(mapWidth, mapHeight);
+        occupancy = new OccupancyIndex(mapWidth, mapHeight);
+        this.numRooms = (numRooms > 0) ? numRooms : RandomUtils.uniform(generator, MIN_NUM_ROOMS, MAX_NUM_ROOMS);
+        this.placement = placement;
         rooms = new ArrayList<>();
-        graph = new EdgeWeightedGraph(numRooms);
-        createMap();
+        if (build) {
+            createMap();
+        }
+    }
+
+    private static int requirePositive(int numRooms) {
+        if (numRooms <= 0) {
+            throw new IllegalArgumentException("number of rooms must be positive: " + numRooms);
+        }
+        return numRooms;
     }
 
     /**
-     * This method consolidates having to call initializeMap(), createNewRooms(), and createHallways() into one
-     * command
+     * This method consolidates having to call initializeMap(), createNewRooms(), planHallways(), digHallways() and
+     * addBallsToRooms() into one command
      */
     private void createMap() {
         initializeMap();
         createNewRooms();
-        createHallways();
+        digHallways(planHallways());
         addBallsToRooms();
     }
 
+    /**
+     * Places the rooms with the chosen PlacementMode.
+     */
+    void createNewRooms() {
+        if (placement == PlacementMode.FREE_RECTANGLES) {
+            createNewRoomsInFreeSpace();
+        } else {
+            createNewSampledRooms();
+        }
+    }
+
     /**
      * Starting at 0, it will create valid rooms as long as there are still rooms left to make, which is decided
-     * by numRooms. Code for the ternary operator and lambda expression was found on the java documentation:
-     * ternary operator: <a href="https://docs.oracle.com/javase/tutorial/java/nutsandbolts/op2.html">...</a>
-     * lambda expression: <a href="https://docs.oracle.com/javase/tutorial/java/javaOO/lambdaexpressions.html">...</a>
+     * by numRooms.
      */
-    private void createNewRooms() {
+    private void createNewSampledRooms() {
         int roomsSoFar = 0;
         while (roomsSoFar < this.numRooms) {
             Room newRoom = Room.createNewRoom(generator, mapWidth, mapHeight);
-            if (rooms.stream().noneMatch(room -> overlap(newRoom))) {
+            if (!overlap(newRoom)) {
                 addRoom(newRoom);
-                addEdges(newRoom, roomsSoFar);
                 roomsSoFar++;
             }
         }
     }
 
     /**
-     * Just consolidates having to call addRoomToMap and adding the room to the list of rooms.
+     * Draws rooms from the free rectangles of the map until numRooms rooms have been placed or no room fits
+     * anymore. Rooms drawn this way never overlap, so every draw is placed.
+     */
+    private void createNewRoomsInFreeSpace() {
+        FreeRectangles freeSpace = new FreeRectangles(mapWidth, mapHeight);
+        while (rooms.size() < this.numRooms) {
+            Room newRoom = freeSpace.placeRoom(generator);
+            if (newRoom == null) {
+                return;
+            }
+            addRoom(newRoom);
+        }
+    }
+
+    /**
+     * Just consolidates having to call addRoomToMap, marking the room in the occupancy index and adding the room to
+     * the list of rooms.
      *
      * @param room instance of room to be added to the instance variable rooms.
      */
     private void addRoom(Room room) {
         addRoomToMap(room);
+        occupancy.occupy(room.getLeft(), room.getBottom(), room.getRight(), room.getTop());
         rooms.add(room);
     }
 
     /**
-     * World Generator uses a EdgeWeightedGraph to store how far apart each vertex is from each other, which will be
-     * used later to calculate which hallways should be created.
+     * Uses the HallwayPlanner to calculate which hallways should be built: a minimum spanning tree over the
+     * distances between the room centers.
      *
-     * @param newRoom      newly created instance of a room that will be added to the graph
-     * @param newRoomIndex the index of the newly created room that is used to store it into rooms
+     * @return the hallways as pairs of indices into rooms, {from, to, from, to, ...}
      */
-    private void addEdges(Room newRoom, int newRoomIndex) {
-        for (int i = 0; i < newRoomIndex; i++) {
-            Room oldRoom = rooms.get(i);
-            double distanceTo = findDistance(newRoom, oldRoom);
-            Edge distance = new Edge(newRoomIndex, i, distanceTo);
-            graph.addEdge(distance);
+    int[] planHallways() {
+        int[] centerX = new int[rooms.size()];
+        int[] centerY = new int[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            centerX[i] = rooms.get(i).getCenterX();
+            centerY[i] = rooms.get(i).getCenterY();
         }
+        return HallwayPlanner.plan(centerX, centerY);
     }
 
     /**
-     * Creates a new instance of an MST using Kruskal's algorithm and calculates which hallways to build based on the
-     * outputted MST. Calls digHallwayBetweenRooms() for every edge found in the MST.
+     * Calls digHallwayBetweenRooms() for every hallway that was planned.
+     *
+     * @param hallways the hallways returned by planHallways()
      */
-    private void createHallways() {
-        KruskalMST kruskal = new KruskalMST(this.graph);
-        Iterable<Edge> edges = kruskal.edges();
-        for (Edge edge : edges) {
-            Room firstRoom = rooms.get(edge.either());
-            Room secondRoom = rooms.get(edge.other(edge.either()));
-            digHallwayBetweenRooms(firstRoom, secondRoom);
+    void digHallways(int[] hallways) {
+        for (int i = 0; i < hallways.length; i += 2) {
+            digHallwayBetweenRooms(rooms.get(hallways[i]), rooms.get(hallways[i + 1]));
+        }
+    }
+
+    /**
+     * Digs a hallway from a doorway on the edge of the map to the starting room. Doorways on the left or right edge
+     * start with a horizontal hallway, and doorways on the bottom or top edge start with a vertical one, so that the
+     * hallway leaves the edge straight away instead of running along it.
+     *
+     * @param doorX the x position of the doorway, on the edge of the map
+     * @param doorY the y position of the doorway, on the edge of the map
+     */
+    void digDoorway(int doorX, int doorY) {
+        int startX = getStartingRoomX();
+        int startY = getStartingRoomY();
+        if (doorX == 0 || doorX == mapWidth - 1) {
+            new Digger(doorX, doorY, startX, startY).dig();
+        } else {
+            new Digger(doorX, doorY, doorX, startY).dig();
+            new Digger(doorX, startY, startX, startY).dig();
         }
     }
 
@@ -132,23 +242,26 @@ public class WorldGenerator {
     /**
      * Basic getter method to return the map to the TileEngine so that it can render the map.
      *
-     * @return the 2D Tile array that is associated with this WorldGenerator instance
+     * @return the TileGrid that is associated with this WorldGenerator instance
      */
-    public TETile[][] getMap() {
+    public TileGrid getGrid() {
         return this.map;
     }
 
     /**
-     * Sets the map to nothing tiles since the rendering of the map will fail if there are null values.
-     * Code was improved by ChatGPT, it was initially a nested for loop that set each value to NOTHING, documentation
-     * was looked at after to understand what the code was doing.
-     * Use of lambda expressions, stream, and fill found in java documentation:
-     * lambda expressions: <a href="https://docs.oracle.com/javase/tutorial/java/javaOO/lambdaexpressions.html">...</a>
-     * stream(): <a href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/package-summary.html">...</a>
-     * fill(): <a href="https://docs.oracle.com/javase/7/docs/api/java/util/Arrays.html">...</a>
+     * Builds the 2D Tile array version of the map for callers that need a TETile[][].
+     *
+     * @return a new 2D Tile array with the tiles of this WorldGenerator instance
      */
-    private void initializeMap() {
-        Arrays.stream(map).forEach(row -> Arrays.fill(row, NOTHING));
+    public TETile[][] getMap() {
+        return this.map.toArray();
+    }
+
+    /**
+     * Sets the map to nothing tiles.
+     */
+    void initializeMap() {
+        map.fill(NOTHING_ID);
     }
 
     /**
@@ -165,7 +278,7 @@ public class WorldGenerator {
 
         for (int x = left; x <= right; x++) {
             for (int y = bottom; y <= top; y++) {
-                TETile tile = (x == left || x == right || y == bottom || y == top) ? WALL : FLOOR;
+                byte tile = (x == left || x == right || y == bottom || y == top) ? WALL_ID : FLOOR_ID;
                 addTile(tile, x, y);
             }
         }
@@ -174,43 +287,23 @@ public class WorldGenerator {
     /**
      * Simply sets the corresponding x and y value in the map to the tile given.
      *
-     * @param tile type of tile that map[x][y] is going to be set as.
+     * @param tile id of the tile that map(x, y) is going to be set as.
      * @param x    x position of the tile
      * @param y    y position of the tile
      */
-    private void addTile(TETile tile, int x, int y) {
-        this.map[x][y] = tile;
-    }
-
-    /**
-     * Finds the Euclidean distance between two rooms.
-     *
-     * @param room1 the instance of the first room that we will use to get the first set of x,y coordinates
-     * @param room2 the instance of the second room that we will use to get the second set of x,y coordinates
-     * @return returns the distance between two rooms using the midpoint formula.
-     */
-    private double findDistance(Room room1, Room room2) {
-        int xDistance = room1.getCenterX() - room2.getCenterX();
-        int yDistance = room1.getCenterY() - room2.getCenterY();
-        return Math.sqrt((double) xDistance * xDistance + yDistance * yDistance);
+    private void addTile(byte tile, int x, int y) {
+        this.map.setId(x, y, tile);
     }
 
     /**
-     * Checks to see if a room overlaps another room by iterating over map and checking to see if any of the potential
+     * Checks to see if a room overlaps another room by asking the occupancy index whether any of the potential
      * room's tiles are taken already.
      *
      * @param room instance of Room that we are trying to insert into the map.
      * @return returns true if there is an overlap, false otherwise
      */
     private boolean overlap(Room room) {
-        for (int x = room.getLeft(); x <= room.getRight(); x++) {
-            for (int y = room.getBottom(); y <= room.getTop(); y++) {
-                if (map[x][y] != NOTHING) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return occupancy.overlaps(room.getLeft(), room.getBottom(), room.getRight(), room.getTop());
     }
 
     public int getStartingRoomX() {
@@ -221,14 +314,20 @@ public class WorldGenerator {
         return rooms.get(0).getCenterY();
     }
 
-    private void addBallsToRooms() {
+    void addBallsToRooms() {
         for (Room room : rooms) {
-            addTile(BALL, room.getCenterX(), room.getCenterY());
+            addTile(BALL_ID, room.getCenterX(), room.getCenterY());
         }
     }
 
+    /**
+     * Returns the number of rooms that were placed. With PlacementMode.FREE_RECTANGLES this can be fewer than were
+     * asked for if the map filled up.
+     *
+     * @return the number of rooms on the map
+     */
     public int getNumRooms() {
-        return numRooms;
+        return rooms.size();
     }
 
 
@@ -291,10 +390,10 @@ public class WorldGenerator {
          * ####
          */
         private void makeHorizontalHallways() {
-            addTile(FLOOR, currX, currY);
+            addTile(FLOOR_ID, currX, currY);
             addAdjacentHorizontalHallwayTiles(currX, currY);
             if (currX + deltaX == endX) {
-                addTile(FLOOR, currX + deltaX, currY);
+                addTile(FLOOR_ID, currX + deltaX, currY);
                 addAdjacentCornerTiles(currX + deltaX, currY);
             }
             currX += deltaX;
@@ -311,7 +410,7 @@ public class WorldGenerator {
          */
         private void makeVerticalHallways() {
             addAdjacentVerticalHallwayTiles(currX, currY);
-            addTile(FLOOR, currX, currY);
+            addTile(FLOOR_ID, currX, currY);
             currY += deltaY;
         }
 
@@ -356,14 +455,14 @@ public class WorldGenerator {
         }
 
         /**
-         * Checks to see if a given tile is set to NOTHING in the map and if it is, it will set map[x][y] to tile.
+         * Checks to see if a given tile is set to NOTHING in the map and if it is, it will set map(x, y) to a wall.
          *
          * @param x the x position of the tile
          * @param y the y position of the tile
          */
         private void addAdjacentTileIfEmpty(int x, int y) {
-            if (map[x][y] == NOTHING) {
-                addTile(WorldGenerator.WALL, x, y);
+            if (map.getId(x, y) == NOTHING_ID) {
+                addTile(WALL_ID, x, y);
             }
         }
     }
@@ -0,0 +1,91 @@
+package byow.TileEngine;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the images of image-backed tiles once and remembers where they are, so that drawing a tile does not have to
+ * look for its image again. Every image path is looked up only the first time it is asked for, and images that are
+ * missing, or that StdDraw fails to draw, are remembered as missing, so tiles fall back to their character without
+ * trying again.
+ * <p>
+ * StdDraw can only draw pictures by name and has no way to draw an image that was decoded elsewhere, so the atlas
+ * doesn't decode anything. It keeps the location each image was found at instead. Handing StdDraw that location
+ * lets it find the image on its first try, and AWT caches the decoded image by that location, instead of StdDraw
+ * searching the file system, URLs and the class path on every draw.
+ */
+public final class SpriteAtlas {
+    private static final Map<String, Sprite> SPRITES = new ConcurrentHashMap<>();
+    private static final Sprite MISSING = new Sprite(null);
+
+    private SpriteAtlas() {
+    }
+
+    /**
+     * Looks up the images of every tile in the TileGrid palette, which includes every tile in Tileset. Meant to be
+     * called once at startup so that the first frame does not have to look for them.
+     */
+    public static void preloadPalette() {
+        for (int id = 0; id < TileGrid.paletteSize(); id++) {
+            TETile tile = TileGrid.tile((byte) id);
+            if (tile.filepath() != null) {
+                lookup(tile.filepath());
+            }
+        }
+    }
+
+    /**
+     * Returns the location StdDraw should draw the image at filepath from.
+     * @param filepath the path the tile was created with
+     * @return the resolved location, or null if the image is missing
+     */
+    public static String source(String filepath) {
+        return lookup(filepath).source;
+    }
+
+    /**
+     * Remembers that the image at filepath could not be drawn, so that it is not tried again.
+     * @param filepath the path the tile was created with
+     */
+    public static void markMissing(String filepath) {
+        SPRITES.put(filepath, MISSING);
+    }
+
+    private static Sprite lookup(String filepath) {
+        return SPRITES.computeIfAbsent(filepath, SpriteAtlas::load);
+    }
+
+    /**
+     * Looks for the image on the class path first and in the file system second, which are the places StdDraw
+     * would find it.
+     */
+    private static Sprite load(String filepath) {
+        URL url = SpriteAtlas.class.getResource(filepath);
+        if (url == null) {
+            File file = new File(filepath);
+            return file.isFile() ? new Sprite(file.getAbsolutePath()) : MISSING;
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return new Sprite(new File(url.toURI()).getAbsolutePath());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return new Sprite(url.toExternalForm());
+            }
+        }
+        return new Sprite(url.toExternalForm());
+    }
+
+    /**
+     * The location StdDraw can load a tile's image from.
+     */
+    private static final class Sprite {
+        private final String source;
+
+        private Sprite(String source) {
+            this.source = source;
+        }
+    }
+}
@@ -10,13 +10,27 @@ import java.awt.Font;
  * to, but be careful. We strongly recommend getting everything else working before
  * messing with this renderer, unless you're trying to do something fancy like
  * allowing scrolling of the screen or tracking the avatar or something similar.
+ *
+ * The renderer is retained-mode: it remembers which tile it last drew at every position
+ * and only redraws the positions whose tile changed, so a frame where nothing changed
+ * draws nothing at all. This relies on nothing else drawing over the world between
+ * frames; call invalidate() after drawing menus or anything else over it.
  */
 public class TERenderer {
     private static final int TILE_SIZE = 16;
+    private static final Color BACKGROUND = new Color(0, 0, 0);
     private int width;
     private int height;
     private int xOffset;
     private int yOffset;
+    private TETile[] lastFrame;
+    private int lastHeight;
+    private boolean lastMasked;
+    private TETile lastHidden;
+    private int lastLeft;
+    private int lastBottom;
+    private int lastRight;
+    private int lastTop;
 
     /**
      * Same functionality as the other initialization method. The only difference is that the xOff
@@ -38,10 +52,12 @@ public class TERenderer {
         StdDraw.setXscale(0, width);
         StdDraw.setYscale(0, height);
 
-        StdDraw.clear(new Color(0, 0, 0));
+        StdDraw.clear(BACKGROUND);
 
         StdDraw.enableDoubleBuffering();
         StdDraw.show();
+        SpriteAtlas.preloadPalette();
+        invalidate();
     }
 
     /**
@@ -63,7 +79,8 @@ public class TERenderer {
 
     /**
      * Takes in a 2d array of TETile objects and renders the 2d array to the screen, starting from
-     * xOffset and yOffset.
+     * xOffset and yOffset. Only positions whose tile is not the one drawn there in the last frame
+     * are drawn, and the screen is only shown if at least one position was drawn.
      *
      * If the array is an NxM array, then the element displayed at positions would be as follows,
      * given in units of tiles.
@@ -82,20 +99,131 @@ public class TERenderer {
      * value is the width of the screen in tiles, and the max y value is the height of
      * the screen in tiles.
      * @param world the 2D TETile[][] array to render
+     * @return the number of tiles that were drawn
      */
-    public void renderFrame(TETile[][] world) {
+    public int renderFrame(TETile[][] world) {
         int numXTiles = world.length;
         int numYTiles = world[0].length;
-        StdDraw.clear(new Color(0, 0, 0));
+        prepareFrame(numXTiles, numYTiles);
+        lastMasked = false;
+        int drawn = 0;
         for (int x = 0; x < numXTiles; x += 1) {
             for (int y = 0; y < numYTiles; y += 1) {
                 if (world[x][y] == null) {
                     throw new IllegalArgumentException("Tile at position x=" + x + ", y=" + y
                             + " is null.");
                 }
-                world[x][y].draw(x + xOffset, y + yOffset);
+                drawn += drawIfChanged(world[x][y], x, y);
             }
         }
-        StdDraw.show();
+        return finishFrame(drawn);
+    }
+
+    /**
+     * Same as renderFrame(TETile[][]), but draws the tiles of a TileGrid, so that no TETile[][] has to be built
+     * just to put a grid on the screen.
+     * @param world the TileGrid to render
+     * @return the number of tiles that were drawn
+     */
+    public int renderFrame(TileGrid world) {
+        prepareFrame(world.width(), world.height());
+        lastMasked = false;
+        int drawn = 0;
+        for (int x = 0; x < world.width(); x += 1) {
+            for (int y = 0; y < world.height(); y += 1) {
+                drawn += drawIfChanged(world.get(x, y), x, y);
+            }
+        }
+        return finishFrame(drawn);
+    }
+
+    /**
+     * Draws only the visible part of a TileGrid, with every position the mask hides drawn as the hidden tile.
+     * If the last frame was drawn by this method with the same hidden tile, everything outside of its window is
+     * still the hidden tile on the screen, so only the positions of the last frame's window and of the mask's
+     * window now can have changed. Only those are compared, and each frame costs about twice the visible area
+     * instead of the whole screen. This holds whichever world and mask objects the frames come from, so a game
+     * that renders copies of its state, like the frames of a TripleBuffer, still takes this path.
+     * @param world the TileGrid to render
+     * @param mask which positions of the world are visible
+     * @param hidden the tile drawn wherever the world is not visible
+     * @return the number of tiles that were drawn
+     */
+    public int renderFrame(TileGrid world, VisibilityMask mask, TETile hidden) {
+        prepareFrame(world.width(), world.height());
+        boolean sameView = lastMasked && hidden == lastHidden;
+        int drawn = 0;
+        if (sameView) {
+            drawn += drawMasked(world, mask, hidden, lastLeft, lastBottom, lastRight, lastTop);
+            drawn += drawMasked(world, mask, hidden, mask.windowLeft(), mask.windowBottom(), mask.windowRight(),
+                    mask.windowTop());
+        } else {
+            drawn += drawMasked(world, mask, hidden, 0, 0, world.width() - 1, world.height() - 1);
+        }
+        lastMasked = true;
+        lastHidden = hidden;
+        lastLeft = mask.windowLeft();
+        lastBottom = mask.windowBottom();
+        lastRight = mask.windowRight();
+        lastTop = mask.windowTop();
+        return finishFrame(drawn);
+    }
+
+    /**
+     * Forgets what the last frame looked like, so that the next call to renderFrame clears the
+     * screen and draws every tile again.
+     */
+    public void invalidate() {
+        lastFrame = null;
+        lastMasked = false;
+        lastHidden = null;
+    }
+
+    /**
+     * Starts over with a cleared screen if there is no last frame of the same size to compare against.
+     */
+    private void prepareFrame(int numXTiles, int numYTiles) {
+        if (lastFrame == null || lastFrame.length != numXTiles * numYTiles || lastHeight != numYTiles) {
+            StdDraw.clear(BACKGROUND);
+            lastFrame = new TETile[numXTiles * numYTiles];
+            lastMasked = false;
+            lastHeight = numYTiles;
+        }
+    }
+
+    private int finishFrame(int drawn) {
+        if (drawn > 0) {
+            StdDraw.show();
+        }
+        return drawn;
+    }
+
+    private int drawMasked(TileGrid world, VisibilityMask mask, TETile hidden, int left, int bottom, int right,
+                           int top) {
+        int drawn = 0;
+        for (int x = left; x <= right; x += 1) {
+            for (int y = bottom; y <= top; y += 1) {
+                drawn += drawIfChanged(mask.isVisible(x, y) ? world.get(x, y) : hidden, x, y);
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Draws the tile at x, y if it is not the one drawn there in the last frame. The old tile is covered with the
+     * background first, since a sprite that is partly transparent would let it show through.
+     */
+    private int drawIfChanged(TETile tile, int x, int y) {
+        int i = x * lastHeight + y;
+        if (lastFrame[i] == tile) {
+            return 0;
+        }
+        if (lastFrame[i] != null) {
+            StdDraw.setPenColor(BACKGROUND);
+            StdDraw.filledSquare(x + xOffset + 0.5, y + yOffset + 0.5, 0.5);
+        }
+        lastFrame[i] = tile;
+        tile.draw(x + xOffset, y + yOffset);
+        return 1;
     }
 }
@@ -27,6 +27,7 @@ public class TETile {
     private final Color backgroundColor;
     private final String description;
     private final String filepath;
+    private final String text;
 
     /**
      * Full constructor for TETile objects.
@@ -34,7 +35,7 @@ public class TETile {
      * @param textColor The color of the character itself.
      * @param backgroundColor The color drawn behind the character.
      * @param description The description of the tile, shown in the GUI on hovering over the tile.
-     * @param filepath Full path to image to be used for this tile. Must be correct size (16x16)
+     * @param filepath Full path to image to be used for this tile. Best drawn at 16x16, see draw()
      */
     public TETile(Character character, Color textColor, Color backgroundColor, String description,
                   String filepath) {
@@ -43,6 +44,7 @@ public class TETile {
         this.backgroundColor = backgroundColor;
         this.description = description;
         this.filepath = filepath;
+        this.text = String.valueOf(character);
     }
 
     /**
@@ -59,6 +61,7 @@ public class TETile {
         this.backgroundColor = backgroundColor;
         this.description = description;
         this.filepath = null;
+        this.text = String.valueOf(character);
     }
 
     /**
@@ -74,29 +77,33 @@ public class TETile {
     /**
      * Draws the tile to the screen at location x, y. If a valid filepath is provided,
      * we draw the image located at that filepath to the screen. Otherwise, we fall
-     * back to the character and color representation for the tile.
+     * back to the character and color representation for the tile. Images are looked
+     * up through the SpriteAtlas, so a missing image is only detected once.
      *
-     * Note that the image provided must be of the right size (16x16). It will not be
-     * automatically resized or truncated.
+     * The image is scaled by StdDraw to fill the tile on every draw, so an image that is
+     * already 16x16 is the cheapest to draw.
      * @param x x coordinate
      * @param y y coordinate
      */
     public void draw(double x, double y) {
         if (filepath != null) {
-            try {
-                StdDraw.picture(x + 0.5, y + 0.5, filepath, 1, 1);
-                return;
-            } catch (IllegalArgumentException e) {
-                // Exception happens because the file can't be found. In this case, fail silently
-                // and just use the character and background color for the tile.
+            String sprite = SpriteAtlas.source(filepath);
+            if (sprite != null) {
+                try {
+                    StdDraw.picture(x + 0.5, y + 0.5, sprite, 1, 1);
+                    return;
+                } catch (IllegalArgumentException e) {
+                    // StdDraw could not load the image after all. Remember that so it isn't tried
+                    // again, and just use the character and background color for the tile.
+                    SpriteAtlas.markMissing(filepath);
+                }
             }
         }
 
         StdDraw.setPenColor(backgroundColor);
         StdDraw.filledSquare(x + 0.5, y + 0.5, 0.5);
         StdDraw.setPenColor(textColor);
-        StdDraw.text(x + 0.5, y + 0.5, Character.toString(character()));
-//        StdDraw.text(x + 0.5, y + 0.5, Character.toString(character()));
+        StdDraw.text(x + 0.5, y + 0.5, text);
     }
 
     /** Character representation of the tile. Used for drawing in text mode.
@@ -106,6 +113,14 @@ public class TETile {
         return character;
     }
 
+    /**
+     * Path to the image drawn for this tile.
+     * @return the image path, or null if the tile is only drawn as a character
+     */
+    public String filepath() {
+        return filepath;
+    }
+
     /**
      * Description of the tile. Useful for displaying mouseover text or
      * testing that two tiles represent the same type of thing.
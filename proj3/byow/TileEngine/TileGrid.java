@@ -0,0 +1,296 @@
+package byow.TileEngine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A compact 2D grid of tiles. Instead of a TETile reference per position, every position stores the byte id of
+ * its tile in one flat array, and the ids are looked up in a palette that the tiles in Tileset register themselves
+ * into. Positions are stored column by column, so grid.get(x, y) lines up with world[x][y] in a TETile[][].
+ * <p>
+ * A TETile[][] should only be needed at the edges of the program, for example to hand a world back from
+ * Engine.interactWithInputString, and can be built on demand with toArray().
+ * <p>
+ * copyOnWrite() hands out a copy that shares the array with this grid until either of them is changed, so a copy
+ * of a grid that is only ever read costs nothing. wrap() reads the ids straight out of a buffer, like a memory-mapped
+ * file, the same way: the ids are only copied into an array of the grid's own when the grid is first changed.
+ */
+public class TileGrid {
+    private static final int MAX_PALETTE_SIZE = 256;
+    private static final TETile[] PALETTE = new TETile[MAX_PALETTE_SIZE];
+    private static int paletteSize = 0;
+
+    private final int width;
+    private final int height;
+    private byte[] cells;
+    private ByteBuffer buffer;
+    private boolean shared;
+
+    /**
+     * Creates a grid of the given size where every position holds the tile with id 0.
+     * @param width width of the grid in tiles
+     * @param height height of the grid in tiles
+     */
+    public TileGrid(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("invalid grid size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = new byte[Math.multiplyExact(width, height)];
+    }
+
+    /**
+     * Creates a copy of the given grid.
+     * @param other grid to copy
+     */
+    public TileGrid(TileGrid other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.cells = new byte[other.size()];
+        other.copyTo(cells, 0);
+    }
+
+    /**
+     * Creates a grid that reads its ids from a buffer, laid out the way copyTo() writes them, without copying them.
+     * The first change to the grid copies the ids into an array first, so the buffer is never written to, and may be
+     * read-only.
+     * @param ids the ids, from the buffer's position on; the buffer's position and limit are not changed
+     * @param width width of the grid in tiles
+     * @param height height of the grid in tiles
+     * @return a grid backed by the buffer
+     */
+    public static TileGrid wrap(ByteBuffer ids, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("invalid grid size: " + width + "x" + height);
+        }
+        int size = Math.multiplyExact(width, height);
+        if (ids.remaining() < size) {
+            throw new IllegalArgumentException("buffer holds " + ids.remaining() + " ids, not " + size);
+        }
+        return new TileGrid(width, height, null, ids.slice(ids.position(), size));
+    }
+
+    /**
+     * Returns a copy of this grid that shares its ids with this grid until one of them is changed. The first change
+     * to either grid copies its ids before changing them, so neither grid ever sees the other one's changes. Reading
+     * from the copy or from this grid never copies anything.
+     * @return a copy of this grid
+     */
+    public TileGrid copyOnWrite() {
+        TileGrid copy = new TileGrid(width, height, cells, buffer);
+        shared = true;
+        return copy;
+    }
+
+    private TileGrid(int width, int height, byte[] sharedCells, ByteBuffer sharedBuffer) {
+        this.width = width;
+        this.height = height;
+        this.cells = sharedCells;
+        this.buffer = sharedBuffer;
+        this.shared = true;
+    }
+
+    /**
+     * Adds a tile to the palette so that it can be stored in a grid. Registering the same tile twice returns the
+     * id it was first given.
+     * @param tile the tile to register
+     * @return the id the tile is stored as
+     */
+    public static synchronized byte register(TETile tile) {
+        if (tile == null) {
+            throw new IllegalArgumentException("tile is null");
+        }
+        for (int i = 0; i < paletteSize; i++) {
+            if (PALETTE[i] == tile) {
+                return (byte) i;
+            }
+        }
+        if (paletteSize == MAX_PALETTE_SIZE) {
+            throw new IllegalStateException("palette is full");
+        }
+        PALETTE[paletteSize] = tile;
+        paletteSize++;
+        return (byte) (paletteSize - 1);
+    }
+
+    /**
+     * Returns the tile that was registered with the given id.
+     * @param id id of the tile
+     * @return the tile with that id
+     */
+    public static TETile tile(byte id) {
+        return PALETTE[id & 0xFF];
+    }
+
+    /**
+     * Returns how many tiles have been registered. Ids go from 0 up to one less than this.
+     * @return the size of the palette
+     */
+    public static synchronized int paletteSize() {
+        return paletteSize;
+    }
+
+    /**
+     * Returns the id that the given tile was registered with.
+     * @param tile a tile that was registered with register()
+     * @return the id of the tile
+     * @throws IllegalArgumentException if the tile was never registered
+     */
+    public static byte idOf(TETile tile) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (PALETTE[i] == tile) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException("tile was never registered: " + tile);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Returns the id of the tile at x, y.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return id of the tile at that position
+     */
+    public byte getId(int x, int y) {
+        int i = index(x, y);
+        return (buffer == null) ? cells[i] : buffer.get(i);
+    }
+
+    /**
+     * Returns the tile at x, y.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return tile at that position
+     */
+    public TETile get(int x, int y) {
+        return tile(getId(x, y));
+    }
+
+    /**
+     * Sets the position x, y to the tile with the given id.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param id id of the tile
+     */
+    public void setId(int x, int y, byte id) {
+        int i = index(x, y);
+        if (shared) {
+            own(true);
+        }
+        cells[i] = id;
+    }
+
+    /**
+     * Sets the position x, y to the given tile.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param tile a tile that was registered with register()
+     */
+    public void set(int x, int y, TETile tile) {
+        setId(x, y, idOf(tile));
+    }
+
+    /**
+     * Makes this grid hold the same tiles as other, without allocating anything.
+     * @param other a grid of the same size
+     */
+    public void copyFrom(TileGrid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("can't copy a " + other.width + "x" + other.height + " grid into a "
+                    + width + "x" + height + " grid");
+        }
+        if (shared) {
+            own(false);
+        }
+        other.copyTo(cells, 0);
+    }
+
+    /**
+     * Copies the ids of every position into dest, column by column the way they are stored, so that the id at x, y
+     * ends up at dest[offset + x * height() + y].
+     * @param dest where to copy the ids
+     * @param offset index in dest of the id at 0, 0
+     */
+    public void copyTo(byte[] dest, int offset) {
+        if (buffer == null) {
+            System.arraycopy(cells, 0, dest, offset, cells.length);
+        } else {
+            buffer.get(0, dest, offset, buffer.capacity());
+        }
+    }
+
+    /**
+     * Sets every position of the grid to the tile with the given id.
+     * @param id id of the tile
+     */
+    public void fill(byte id) {
+        if (shared) {
+            own(false);
+        }
+        Arrays.fill(cells, id);
+    }
+
+    /**
+     * Checks whether x, y is a position inside the grid.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return true if the position is inside the grid
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Builds the TETile[][] representation of this grid.
+     * @return a new 2D array with the same tiles as this grid
+     */
+    public TETile[][] toArray() {
+        byte[] ids = (buffer == null) ? cells : new byte[size()];
+        if (buffer != null) {
+            copyTo(ids, 0);
+        }
+        TETile[][] world = new TETile[width][height];
+        int i = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                world[x][y] = tile(ids[i]);
+                i++;
+            }
+        }
+        return world;
+    }
+
+    private int size() {
+        return width * height;
+    }
+
+    /**
+     * Gives the grid an array of its own before it is changed, instead of the array or buffer it shares.
+     * @param keep whether the ids have to be copied, or are about to be overwritten anyway
+     */
+    private void own(boolean keep) {
+        byte[] owned = new byte[size()];
+        if (keep) {
+            copyTo(owned, 0);
+        }
+        cells = owned;
+        buffer = null;
+        shared = false;
+    }
+
+    private int index(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("position x=" + x + ", y=" + y + " is outside the grid");
+        }
+        return x * height + y;
+    }
+}
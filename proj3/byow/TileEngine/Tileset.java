@@ -12,6 +12,9 @@ import java.awt.Color;
  * Ex:
  *      world[x][y] = Tileset.FLOOR;
  *
+ * Every tile here is also registered in the TileGrid palette, and its id is kept next to it, e.g.
+ *      grid.setId(x, y, Tileset.FLOOR_ID);
+ *
  * The style checker may crash when you try to style check this file due to use of unicode
  * characters. This is OK.
  */
@@ -25,6 +28,13 @@ public class Tileset {
     public static final TETile GRASS = new TETile(' ', Color.black, Color.black, "grass", "/byow/img_6.png");
     public static final TETile WATER = new TETile(' ', Color.blue, Color.black, "water", "/byow/img_4.png");
     public static final TETile BALL = new TETile('0', Color.magenta, Color.pink, "ball", "/byow/img_3.png");
+
+    public static final byte WATER_ID = TileGrid.register(WATER);
+    public static final byte AVATAR_ID = TileGrid.register(AVATAR);
+    public static final byte WALL_ID = TileGrid.register(WALL);
+    public static final byte FLOOR_ID = TileGrid.register(FLOOR);
+    public static final byte GRASS_ID = TileGrid.register(GRASS);
+    public static final byte BALL_ID = TileGrid.register(BALL);
 }
 
 
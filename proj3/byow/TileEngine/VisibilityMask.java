@@ -0,0 +1,132 @@
+package byow.TileEngine;
+
+/**
+ * Keeps track of which positions of a world are visible, one bit per position. The visible positions are a square
+ * window around a point, usually the player, and moving the window only touches the bits of the positions that
+ * enter or leave it, so the cost of a move depends on the size of the window and not on the size of the world.
+ */
+public class VisibilityMask {
+    private final int width;
+    private final int height;
+    private final long[] bits;
+    private int left;
+    private int bottom;
+    private int right;
+    private int top;
+
+    /**
+     * Creates a mask of the given size where nothing is visible.
+     * @param width width of the world in tiles
+     * @param height height of the world in tiles
+     */
+    public VisibilityMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(int) ((Math.multiplyExact((long) width, height) + Long.SIZE - 1) / Long.SIZE)];
+        this.left = 0;
+        this.bottom = 0;
+        this.right = -1;
+        this.top = -1;
+    }
+
+    /**
+     * Moves the visible window so that it covers every position at most radius tiles away from centerX, centerY
+     * in both directions, clipped to the world.
+     * @param centerX x coordinate of the center of the window
+     * @param centerY y coordinate of the center of the window
+     * @param radius how far the window reaches from its center
+     */
+    public void moveWindow(int centerX, int centerY, int radius) {
+        int newLeft = Math.max(0, centerX - radius);
+        int newBottom = Math.max(0, centerY - radius);
+        int newRight = Math.min(width - 1, centerX + radius);
+        int newTop = Math.min(height - 1, centerY + radius);
+
+        for (int x = left; x <= right; x++) {
+            for (int y = bottom; y <= top; y++) {
+                if (!inside(x, y, newLeft, newBottom, newRight, newTop)) {
+                    int i = index(x, y);
+                    bits[i >>> 6] &= ~(1L << i);
+                }
+            }
+        }
+        for (int x = newLeft; x <= newRight; x++) {
+            for (int y = newBottom; y <= newTop; y++) {
+                if (!inside(x, y, left, bottom, right, top)) {
+                    int i = index(x, y);
+                    bits[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        left = newLeft;
+        bottom = newBottom;
+        right = newRight;
+        top = newTop;
+    }
+
+    /**
+     * Makes this mask show the same positions as other, without allocating anything.
+     * @param other a mask of the same size
+     */
+    public void copyFrom(VisibilityMask other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("can't copy a " + other.width + "x" + other.height + " mask into a "
+                    + width + "x" + height + " mask");
+        }
+        System.arraycopy(other.bits, 0, bits, 0, bits.length);
+        left = other.left;
+        bottom = other.bottom;
+        right = other.right;
+        top = other.top;
+    }
+
+    /**
+     * Checks whether the position x, y is visible.
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return true if the position is inside the visible window
+     */
+    public boolean isVisible(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+        int i = index(x, y);
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /** @return x coordinate of the left side of the visible window */
+    public int windowLeft() {
+        return left;
+    }
+
+    /** @return y coordinate of the bottom side of the visible window */
+    public int windowBottom() {
+        return bottom;
+    }
+
+    /** @return x coordinate of the right side of the visible window, less than windowLeft() if it is empty */
+    public int windowRight() {
+        return right;
+    }
+
+    /** @return y coordinate of the top side of the visible window, less than windowBottom() if it is empty */
+    public int windowTop() {
+        return top;
+    }
+
+    private int index(int x, int y) {
+        return x * height + y;
+    }
+
+    private static boolean inside(int x, int y, int left, int bottom, int right, int top) {
+        return x >= left && x <= right && y >= bottom && y <= top;
+    }
+}